@@ -0,0 +1,54 @@
+package free.servpp.config.benchmarks;
+
+import free.servpp.config.hocon.HoconConfigLoader;
+import free.servpp.config.hocon.HoconConfigTypeManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Helpers shared by the benchmarks to create, load and delete synthetic configuration trees.
+ */
+final class BenchmarkTrees {
+    private BenchmarkTrees() {
+    }
+
+    /**
+     * Generates a tree of the given number of files in a new temporary directory.
+     */
+    static Path create(int files) throws IOException {
+        Path dir = Files.createTempDirectory("sppconfig-bench");
+        SyntheticConfigGenerator.generate(dir, files);
+        return dir;
+    }
+
+    /**
+     * Creates a loader for generated trees.
+     */
+    static HoconConfigLoader newLoader() {
+        return new HoconConfigLoader(".conf", "", new SyntheticConfigurableBuilder());
+    }
+
+    /**
+     * Loads a generated tree and returns the filled manager.
+     */
+    static HoconConfigTypeManager load(Path dir) throws IOException {
+        HoconConfigLoader loader = newLoader();
+        loader.load(dir.toFile());
+        return loader.getManager();
+    }
+
+    /**
+     * Deletes a generated tree.
+     */
+    static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package free.servpp.config.benchmarks;
+
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+import free.servpp.config.hocon.ConfigTypeHandle;
+import free.servpp.config.hocon.HoconConfigTypeManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups from many threads against one shared HoconConfigTypeManager,
+ * going through the type lookup and the resolution cache of each type. The type is
+ * looked up either by name or by a handle resolved up front.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ContentionBenchmark {
+    private static final int FILES = 1000;
+
+    @State(Scope.Benchmark)
+    public static class SharedManager {
+        private Path dir;
+        HoconConfigTypeManager manager;
+        String[] types;
+        ConfigTypeHandle[] handles;
+        ConfigKey[] keys;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = BenchmarkTrees.create(FILES);
+            manager = BenchmarkTrees.load(dir);
+            int typeCount = SyntheticConfigGenerator.typeCount(FILES);
+            int ids = FILES / typeCount - SyntheticConfigGenerator.MODIFIERS_PER_TYPE - 1;
+            types = new String[typeCount * ids];
+            handles = new ConfigTypeHandle[types.length];
+            keys = new ConfigKey[types.length];
+            for (int t = 0; t < typeCount; t++) {
+                for (int i = 0; i < ids; i++) {
+                    int n = t * ids + i;
+                    types[n] = SyntheticConfigGenerator.typeName(t);
+                    handles[n] = manager.getTypeHandle(types[n]);
+                    keys[n] = new ConfigKey(SyntheticConfigGenerator.idName(t, i),
+                            SyntheticConfigGenerator.modifierName(i % SyntheticConfigGenerator.MODIFIERS_PER_TYPE));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchmarkTrees.delete(dir);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public IConfig lookup(SharedManager shared, Cursor cursor) {
+        int n = cursor.next;
+        cursor.next = n + 1 == shared.keys.length ? 0 : n + 1;
+        return shared.manager.getHoconConfigManager(shared.types[n]).getConfig(shared.keys[n]);
+    }
+
+    @Benchmark
+    public IConfig lookupByHandle(SharedManager shared, Cursor cursor) {
+        int n = cursor.next;
+        cursor.next = n + 1 == shared.keys.length ? 0 : n + 1;
+        return shared.manager.getHoconConfigManager(shared.handles[n]).getConfig(shared.keys[n]);
+    }
+}
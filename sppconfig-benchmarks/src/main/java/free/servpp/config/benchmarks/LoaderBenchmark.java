@@ -0,0 +1,66 @@
+package free.servpp.config.benchmarks;
+
+import free.servpp.config.hocon.HoconConfigLoader;
+import free.servpp.config.hocon.HoconConfigTypeManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures HoconConfigLoader.load over generated trees of 10, 1k and 10k files,
+ * parsing on the calling thread and on a ForkJoinPool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoaderBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int files;
+
+    private Path dir;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = BenchmarkTrees.create(files);
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        BenchmarkTrees.delete(dir);
+    }
+
+    @Benchmark
+    public HoconConfigTypeManager load() throws IOException {
+        HoconConfigLoader loader = BenchmarkTrees.newLoader();
+        loader.load(dir.toFile());
+        return loader.getManager();
+    }
+
+    @Benchmark
+    public HoconConfigTypeManager loadParallel() throws IOException {
+        HoconConfigLoader loader = BenchmarkTrees.newLoader().setExecutor(pool).setParallelClassification(true);
+        loader.load(dir.toFile());
+        return loader.getManager();
+    }
+}
@@ -0,0 +1,76 @@
+package free.servpp.config.benchmarks;
+
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.hocon.HoconConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures IConfigManager.getConfig for callers resolved at each ConfigLevel. The warm
+ * benchmark reads the resolution cache; the cold one invalidates it first, so every call
+ * resolves and merges again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    @Param({"ID", "MODIFIER", "DEFAULT"})
+    public IConfigManager.ConfigLevel level;
+
+    private Path dir;
+    private HoconConfigManager manager;
+    private ConfigKey key;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = BenchmarkTrees.create(1000);
+        manager = BenchmarkTrees.load(dir).getHoconConfigManager(SyntheticConfigGenerator.typeName(0));
+        switch (level) {
+            case ID:
+                key = new ConfigKey(SyntheticConfigGenerator.idName(0, 0), SyntheticConfigGenerator.modifierName(0));
+                break;
+            case MODIFIER:
+                key = new ConfigKey("unknown", SyntheticConfigGenerator.modifierName(0));
+                break;
+            default:
+                key = new ConfigKey("unknown", null);
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkTrees.delete(dir);
+    }
+
+    @Benchmark
+    public IConfig warm() {
+        return manager.getConfig(key);
+    }
+
+    @Benchmark
+    public IConfig cold() {
+        manager.invalidateResolvedConfigs();
+        return manager.getConfig(key);
+    }
+}
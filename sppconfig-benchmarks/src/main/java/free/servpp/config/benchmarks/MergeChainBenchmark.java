@@ -0,0 +1,65 @@
+package free.servpp.config.benchmarks;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import free.servpp.config.hocon.HoconConfigImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures HoconConfigImpl.mergeSuper over fallback chains of increasing depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeChainBenchmark {
+    @Param({"1", "4", "16"})
+    public int depth;
+
+    private HoconConfigImpl base;
+    private HoconConfigImpl[] fallbacks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        base = new HoconConfigImpl(level(0));
+        fallbacks = new HoconConfigImpl[depth];
+        for (int i = 0; i < depth; i++) {
+            fallbacks[i] = new HoconConfigImpl(level(i + 1));
+        }
+    }
+
+    private static Config level(int level) {
+        StringBuilder sb = new StringBuilder("service {\n");
+        for (int k = 0; k < SyntheticConfigGenerator.FILLER_KEYS; k++) {
+            // Every level overrides half of the keys of the next one
+            if ((k + level) % 2 == 0)
+                sb.append("  key").append(k).append(" = \"level").append(level).append("\"\n");
+        }
+        sb.append("  nested { level = ").append(level).append(" }\n}\n");
+        return ConfigFactory.parseString(sb.toString());
+    }
+
+    @Benchmark
+    public Config mergeChain() {
+        HoconConfigImpl config = base.copy();
+        for (HoconConfigImpl fallback : fallbacks) {
+            config.mergeSuper(fallback);
+        }
+        return config.getConfigObject();
+    }
+}
@@ -0,0 +1,104 @@
+package free.servpp.config.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generates synthetic configuration trees for the benchmarks. The files are spread over
+ * {@code max(1, files / 100)} types. Every type has one default file, a few modifier files
+ * and ID files for the rest, each in its own subdirectory:
+ * <pre>
+ * type0 { header = "type0-default", timeout = 5s, ..., nested { ... } }
+ * type0 { modifier = m0, header = "type0-m0", ... }
+ * type0 { id = "type0-id7", header = "type0-id7", ... }
+ * </pre>
+ * Every file also gets a number of filler keys, so that merges copy realistic trees.
+ *
+ * Usage: java SyntheticConfigGenerator &lt;output-dir&gt; &lt;files&gt;
+ */
+public final class SyntheticConfigGenerator {
+    public static final String ID_KEY = "id";
+    public static final String MODIFIER_KEY = "modifier";
+    public static final int MODIFIERS_PER_TYPE = 4;
+    public static final int FILLER_KEYS = 16;
+
+    private SyntheticConfigGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java SyntheticConfigGenerator <output-dir> <files>");
+            return;
+        }
+        generate(Paths.get(args[0]), Integer.parseInt(args[1]));
+    }
+
+    /**
+     * Returns the number of types a tree of the given number of files is spread over.
+     *
+     * @param files the number of files
+     * @return the number of types
+     */
+    public static int typeCount(int files) {
+        return Math.max(1, files / 100);
+    }
+
+    public static String typeName(int type) {
+        return "type" + type;
+    }
+
+    public static String modifierName(int modifier) {
+        return "m" + modifier;
+    }
+
+    public static String idName(int type, int id) {
+        return typeName(type) + "-id" + id;
+    }
+
+    /**
+     * Writes a tree of the given number of configuration files below the directory.
+     *
+     * @param dir   the directory to write to
+     * @param files the number of files
+     * @throws IOException if a file cannot be written
+     */
+    public static void generate(Path dir, int files) throws IOException {
+        int types = typeCount(files);
+        for (int i = 0; i < files; i++) {
+            int type = i % types;
+            int index = i / types;
+            String name = typeName(type);
+            Path typeDir = dir.resolve(name);
+            Files.createDirectories(typeDir);
+            try (Writer writer = Files.newBufferedWriter(typeDir.resolve(name + "-" + index + ".conf"), StandardCharsets.UTF_8)) {
+                writer.write(name + " {\n");
+                String label;
+                if (index == 0) {
+                    label = name + "-default";
+                } else if (index <= MODIFIERS_PER_TYPE) {
+                    label = name + "-" + modifierName(index - 1);
+                    writer.write("    " + MODIFIER_KEY + " = " + modifierName(index - 1) + "\n");
+                } else {
+                    label = idName(type, index - MODIFIERS_PER_TYPE - 1);
+                    writer.write("    " + ID_KEY + " = \"" + label + "\"\n");
+                }
+                writer.write("    header = \"" + label + "\"\n");
+                writer.write("    timeout = " + (index % 30 + 1) + "s\n");
+                writer.write("    retries = " + (index % 5) + "\n");
+                writer.write("    enabled = " + (index % 2 == 0) + "\n");
+                for (int k = 0; k < FILLER_KEYS; k++) {
+                    writer.write("    key" + k + " = \"" + label + "-" + k + "\"\n");
+                }
+                writer.write("    nested {\n");
+                writer.write("        level = " + index + "\n");
+                writer.write("        values = [1, 2, 3]\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        }
+    }
+}
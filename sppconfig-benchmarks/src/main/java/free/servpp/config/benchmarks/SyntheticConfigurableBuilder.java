@@ -0,0 +1,14 @@
+package free.servpp.config.benchmarks;
+
+import free.servpp.config.hocon.DeclarativeConfigurableBuilder;
+
+/**
+ * Builds configurables for trees written by SyntheticConfigGenerator. IDs and modifiers are read
+ * from {@code <type>.id} and {@code <type>.modifier} of every type, by the declarative builder,
+ * so that the builder itself does not dominate load benchmarks with exceptions.
+ */
+public class SyntheticConfigurableBuilder extends DeclarativeConfigurableBuilder {
+    public SyntheticConfigurableBuilder() {
+        declareDefault(SyntheticConfigGenerator.ID_KEY, SyntheticConfigGenerator.MODIFIER_KEY);
+    }
+}
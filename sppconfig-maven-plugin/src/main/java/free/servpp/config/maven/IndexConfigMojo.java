@@ -0,0 +1,128 @@
+package free.servpp.config.maven;
+
+import free.servpp.config.hocon.CompiledConfigFile;
+import free.servpp.config.hocon.HoconConfigLoader;
+import free.servpp.config.hocon.HoconConfigTypeManager;
+import free.servpp.config.hocon.IConfigurableBuilder;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * The IndexConfigMojo class runs the HoconConfigLoader over the configuration resources of
+ * the project at build time and writes the classified types, IDs and modifiers to an index
+ * resource in the output directory. At runtime a HoconConfigLoader with
+ * setUseIndexResource(true) finds the index on the classpath and installs it instead of
+ * scanning and parsing the resources.
+ *
+ * The goal runs after the classes are compiled, so that the builder of the project can be used.
+ */
+@Mojo(name = "index", defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.RUNTIME, threadSafe = true)
+public class IndexConfigMojo extends AbstractMojo {
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * The IConfigurableBuilder of the project, instantiated with its no-argument constructor.
+     */
+    @Parameter(required = true)
+    private String builderClass;
+
+    /**
+     * The classpath directory the configuration files are loaded from.
+     */
+    @Parameter(defaultValue = "")
+    private String resourcesDir;
+
+    /**
+     * The file extension of configuration files.
+     */
+    @Parameter(defaultValue = ".conf")
+    private String configFileExtension;
+
+    /**
+     * The directory the index resource is written to.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File outputDirectory;
+
+    @Parameter(property = "sppconfig.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping config index");
+            return;
+        }
+        String dir = resourcesDir == null ? "" : resourcesDir;
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new ProjectClassLoader(getClasspathUrls(), getClass().getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            IConfigurableBuilder builder = (IConfigurableBuilder) classLoader.loadClass(builderClass)
+                    .getDeclaredConstructor().newInstance();
+            HoconConfigLoader loader = new HoconConfigLoader(configFileExtension, dir, builder)
+                    .setUseIndexResource(false);
+            loader.load();
+            HoconConfigTypeManager manager = loader.getManager();
+            File index = new File(outputDirectory, CompiledConfigFile.getIndexResourceName(dir));
+            CompiledConfigFile.write(manager, loader.computeSourceHash(dir), index);
+            getLog().info("Indexed " + loader.getLoadReport().getParseNanosByFile().size() + " config files of "
+                    + manager.getConfigTypes().size() + " types into " + index);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new MojoExecutionException("Cannot create builder " + builderClass, e);
+        } catch (IOException | RuntimeException e) {
+            throw new MojoExecutionException("Cannot index configurations of " + project.getArtifactId(), e);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private URL[] getClasspathUrls() throws MojoExecutionException {
+        try {
+            List<URL> urls = new ArrayList<>();
+            for (String element : project.getRuntimeClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+            return urls.toArray(new URL[0]);
+        } catch (DependencyResolutionRequiredException | MalformedURLException e) {
+            throw new MojoExecutionException("Cannot resolve the runtime classpath", e);
+        }
+    }
+
+    /**
+     * Loads classes parent first, so that the builder shares the library classes of the plugin,
+     * but finds resources only on the project classpath, so that the plugin's own jars are not indexed.
+     */
+    private static final class ProjectClassLoader extends URLClassLoader {
+        private ProjectClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            return findResource(name);
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            return findResources(name);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package free.servpp.config;
+
+import java.util.Arrays;
+
+/**
+ * The ConfigBatch class holds the configurations resolved by a batch lookup, by the position
+ * of their requests. A batch is meant to be kept and reused for further lookups, so that
+ * a warm batch lookup does not allocate; it is not safe for use by several threads at once.
+ *
+ * A batch also holds the scratch state of a lookup that groups its requests, for example
+ * by type: implementations add every request with its group key, sort the positions by
+ * group once, and then resolve group by group.
+ */
+public final class ConfigBatch {
+    private IConfig[] configs;
+    private int size;
+
+    // The scratch state of a grouped lookup: an open-addressed identity table from group keys
+    // to group numbers, the keys and the start positions of the groups, and the request and
+    // group of every position together with the positions ordered by group.
+    private Object[] groupTable = new Object[16];
+    private int[] groupNumbers = new int[16];
+    private Object[] groupKeys = new Object[8];
+    private int[] groupStarts = new int[9];
+    private int groupCount;
+    private Object[] requests = new Object[16];
+    private int[] groupOf = new int[16];
+    private int[] groupedPositions = new int[16];
+    private int grouped;
+
+    /**
+     * Constructs an empty ConfigBatch.
+     */
+    public ConfigBatch() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty ConfigBatch with room for the given number of configurations.
+     *
+     * @param capacity The number of configurations the batch holds without growing.
+     */
+    public ConfigBatch(int capacity) {
+        configs = new IConfig[Math.max(1, capacity)];
+    }
+
+    /**
+     * Retrieves the number of positions in this batch.
+     *
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the configuration resolved for the request at the given position.
+     *
+     * @param index The position of the request.
+     * @return The configuration, or null if none was found.
+     */
+    public IConfig get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of batch of " + size);
+        return configs[index];
+    }
+
+    /**
+     * Stores the configuration resolved for the request at the given position, growing the batch if needed.
+     *
+     * @param index  The position of the request.
+     * @param config The configuration, or null if none was found.
+     */
+    public void set(int index, IConfig config) {
+        if (index >= configs.length)
+            configs = Arrays.copyOf(configs, Math.max(index + 1, configs.length * 2));
+        configs[index] = config;
+        if (index >= size)
+            size = index + 1;
+    }
+
+    /**
+     * Adds a request to the group of a key, at the next position of a grouped lookup.
+     * Positions are numbered from 0 in the order requests are added. Keys are compared
+     * by identity.
+     *
+     * @param key     The key of the group of the request.
+     * @param request The request.
+     */
+    public void addToGroup(Object key, Object request) {
+        int position = grouped++;
+        if (position == requests.length) {
+            requests = Arrays.copyOf(requests, position * 2);
+            groupOf = Arrays.copyOf(groupOf, position * 2);
+            groupedPositions = Arrays.copyOf(groupedPositions, position * 2);
+        }
+        requests[position] = request;
+        groupOf[position] = findGroup(key);
+    }
+
+    private int findGroup(Object key) {
+        int mask = groupTable.length - 1;
+        int i = System.identityHashCode(key) & mask;
+        while (groupTable[i] != null) {
+            if (groupTable[i] == key)
+                return groupNumbers[i];
+            i = (i + 1) & mask;
+        }
+        int group = groupCount++;
+        if (group == groupKeys.length) {
+            groupKeys = Arrays.copyOf(groupKeys, group * 2);
+            groupStarts = Arrays.copyOf(groupStarts, group * 2 + 1);
+        }
+        groupKeys[group] = key;
+        groupTable[i] = key;
+        groupNumbers[i] = group;
+        // The table is kept at most half full
+        if (groupCount * 2 > groupTable.length)
+            rehashGroups();
+        return group;
+    }
+
+    private void rehashGroups() {
+        Object[] table = new Object[groupTable.length * 2];
+        int[] numbers = new int[table.length];
+        int mask = table.length - 1;
+        for (int group = 0; group < groupCount; group++) {
+            int i = System.identityHashCode(groupKeys[group]) & mask;
+            while (table[i] != null)
+                i = (i + 1) & mask;
+            table[i] = groupKeys[group];
+            numbers[i] = group;
+        }
+        groupTable = table;
+        groupNumbers = numbers;
+    }
+
+    /**
+     * Orders the positions added with {@link #addToGroup(Object, Object)} by group, keeping
+     * their order within each group.
+     *
+     * @return The number of groups.
+     */
+    public int sortGroups() {
+        Arrays.fill(groupStarts, 0, groupCount + 1, 0);
+        for (int position = 0; position < grouped; position++) {
+            groupStarts[groupOf[position] + 1]++;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            groupStarts[group + 1] += groupStarts[group];
+        }
+        // Every start is advanced to the start of the next group while placing, then shifted back
+        for (int position = 0; position < grouped; position++) {
+            groupedPositions[groupStarts[groupOf[position]]++] = position;
+        }
+        for (int group = groupCount; group > 0; group--) {
+            groupStarts[group] = groupStarts[group - 1];
+        }
+        groupStarts[0] = 0;
+        return groupCount;
+    }
+
+    /**
+     * Retrieves the key of a group of a grouped lookup.
+     *
+     * @param group The number of the group, below the result of {@link #sortGroups()}.
+     * @return The key of the group.
+     */
+    public Object getGroupKey(int group) {
+        return groupKeys[group];
+    }
+
+    /**
+     * Retrieves the index of the first position of a group in the order of {@link #sortGroups()}.
+     *
+     * @param group The number of the group.
+     * @return The index of the first position of the group.
+     */
+    public int getGroupStart(int group) {
+        return groupStarts[group];
+    }
+
+    /**
+     * Retrieves the index after the last position of a group in the order of {@link #sortGroups()}.
+     *
+     * @param group The number of the group.
+     * @return The index after the last position of the group.
+     */
+    public int getGroupEnd(int group) {
+        return groupStarts[group + 1];
+    }
+
+    /**
+     * Retrieves the position at an index of the order of {@link #sortGroups()}.
+     *
+     * @param index The index, between the start and the end of a group.
+     * @return The position of the request.
+     */
+    public int getGroupedPosition(int index) {
+        return groupedPositions[index];
+    }
+
+    /**
+     * Retrieves the request added at a position of a grouped lookup.
+     *
+     * @param position The position of the request.
+     * @return The request.
+     */
+    public Object getRequest(int position) {
+        return requests[position];
+    }
+
+    /**
+     * Empties this batch for reuse, releasing the configurations, requests and group keys it holds.
+     *
+     * @return This batch.
+     */
+    public ConfigBatch clear() {
+        Arrays.fill(configs, 0, size, null);
+        size = 0;
+        if (groupCount > 0) {
+            Arrays.fill(groupTable, null);
+            Arrays.fill(groupKeys, 0, groupCount, null);
+            groupCount = 0;
+        }
+        Arrays.fill(requests, 0, grouped, null);
+        grouped = 0;
+        return this;
+    }
+}
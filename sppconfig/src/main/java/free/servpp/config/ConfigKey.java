@@ -0,0 +1,56 @@
+package free.servpp.config;
+
+import java.util.Objects;
+
+/**
+ * The ConfigKey class is a plain IConfigurable holding a configuration ID and a modifier.
+ * It is used to look up configurations on behalf of callers that are not configurable
+ * objects themselves, for example when configurations are resolved ahead of time.
+ * Keys with the same ID and modifier are equal.
+ */
+public final class ConfigKey implements IConfigurable {
+    private final String configId;
+    private final String modifier;
+
+    /**
+     * Constructs a ConfigKey with the specified configuration ID and modifier.
+     *
+     * @param configId The configuration ID, or null if not applicable.
+     * @param modifier The modifier, or null if not applicable.
+     */
+    public ConfigKey(String configId, String modifier) {
+        this.configId = configId;
+        this.modifier = modifier;
+    }
+
+    @Override
+    public String getConfigId() {
+        return configId;
+    }
+
+    @Override
+    public String getModifier() {
+        return modifier;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ConfigKey))
+            return false;
+        ConfigKey other = (ConfigKey) o;
+        return Objects.equals(configId, other.configId) && Objects.equals(modifier, other.modifier);
+    }
+
+    @Override
+    public int hashCode() {
+        // Not Objects.hash, which allocates an array on every cache probe
+        return 31 * Objects.hashCode(configId) + Objects.hashCode(modifier);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigKey{configId=" + configId + ", modifier=" + modifier + "}";
+    }
+}
@@ -0,0 +1,29 @@
+package free.servpp.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The ConfigMergeEvent class is the Java Flight Recorder event emitted by
+ * {@link IConfigManager#mergeConfig} for every merge of a configuration with its fallbacks.
+ */
+@Name("free.servpp.config.Merge")
+@Label("Config Merge")
+@Category({"SPP Config", "Resolve"})
+@Description("Merge of a configuration with the modifier and default configurations it falls back to")
+class ConfigMergeEvent extends Event {
+    @Label("Type")
+    String configType;
+
+    @Label("Level")
+    String level;
+
+    @Label("Configuration ID")
+    String configId;
+
+    @Label("Modifier")
+    String modifier;
+}
@@ -43,4 +43,17 @@ public interface IConfig<T> {
      * @return The configuration object of type T.
      */
     T getConfigObject();
+
+    /**
+     * Creates a new, unmerged configuration sharing the underlying configuration object of this one.
+     * The copy can be merged for a particular caller without altering the original configuration.
+     * It is only asked for when an unmerged configuration is resolved; implementations that are
+     * stored unmerged in a manager must override it.
+     *
+     * @return A copy of this configuration.
+     * @throws UnsupportedOperationException if the implementation cannot be copied.
+     */
+    default IConfig<T> copy() {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support copy(), which merging it on lookup requires");
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package free.servpp.config;
 
+import java.util.Collection;
+
 /**
  * The IConfigManager interface serves as a configuration manager,
  * providing functionality to manage and retrieve configuration objects
@@ -71,13 +73,51 @@ public interface IConfigManager {
 
     /**
      * Retrieve a configuration based on the given IConfigurable object.
-     * If the configuration is found by ID, modifier, or default modifier and it has not been merged,
-     * the configuration will be merged accordingly.
+     * Implementations may cache the result per (ID, modifier) pair; by default every call resolves again.
      *
      * @param configurable An object containing configuration identifiers (ID or modifier).
      * @return The retrieved configuration object, or null if not found.
      */
     default IConfig getConfig(IConfigurable configurable) {
+        return resolveConfig(configurable);
+    }
+
+    /**
+     * Retrieve the configurations of several IConfigurable objects at once.
+     *
+     * @param configurables The objects to retrieve configurations for.
+     * @return A new batch holding the configuration of every object at its position.
+     */
+    default ConfigBatch getConfigs(Collection<? extends IConfigurable> configurables) {
+        return getConfigs(configurables, new ConfigBatch(configurables.size()));
+    }
+
+    /**
+     * Retrieve the configurations of several IConfigurable objects at once into a reusable batch.
+     * Implementations may share work between the objects; by default each one is looked up in turn.
+     *
+     * @param configurables The objects to retrieve configurations for.
+     * @param batch The batch to fill; it is cleared first.
+     * @return The batch, holding the configuration of every object at its position.
+     */
+    default ConfigBatch getConfigs(Collection<? extends IConfigurable> configurables, ConfigBatch batch) {
+        batch.clear();
+        int index = 0;
+        for (IConfigurable configurable : configurables) {
+            batch.set(index++, getConfig(configurable));
+        }
+        return batch;
+    }
+
+    /**
+     * Resolve a configuration for the given IConfigurable object.
+     * The configuration is looked up by ID, modifier, or default modifier. If it has not been merged,
+     * a copy of it is merged accordingly, so the stored configuration is never changed by a lookup.
+     *
+     * @param configurable An object containing configuration identifiers (ID or modifier).
+     * @return The resolved configuration object, or null if not found.
+     */
+    default IConfig resolveConfig(IConfigurable configurable) {
         IConfig ret = null;
         ConfigLevel level = ConfigLevel.ID;
         ret = getConfigById(configurable.getConfigId());
@@ -94,6 +134,7 @@ public interface IConfigManager {
             }
         }
         if (ret != null && !ret.isMerged()) {
+            ret = ret.copy();
             mergeConfig(ret, configurable, level);
         }
         return ret;
@@ -127,12 +168,15 @@ public interface IConfigManager {
     /**
      * Merge a configuration object. Based on the configuration priority (ID, modifier, default),
      * merge the configuration object into the target configuration.
+     * Every merge is recorded as a ConfigMergeEvent when Java Flight Recorder is enabled.
      *
      * @param ret The configuration object to be merged.
      * @param configurable An object containing configuration identifiers (ID or modifier).
      * @param level The current configuration priority level.
      */
     default void mergeConfig(IConfig ret, IConfigurable configurable, ConfigLevel level) {
+        ConfigMergeEvent event = new ConfigMergeEvent();
+        event.begin();
         switch (level) {
             case ID:
                 IConfig config;
@@ -160,5 +204,12 @@ public interface IConfigManager {
                 throw new RuntimeException("Error config level " + level);
         }
         ret.setMerged(true);
+        if (event.shouldCommit()) {
+            event.configType = getConfigType();
+            event.level = level.name();
+            event.configId = configurable.getConfigId();
+            event.modifier = configurable.getModifier();
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package free.servpp.config;
+
+/**
+ * The IConfigMetrics interface is the service provider interface for metrics of configuration
+ * resolution. A configuration manager asks it once per configuration type for an
+ * IConfigTypeMetrics and reports every event of that type to it, so implementations
+ * do not need to look the type up on the lookup path.
+ *
+ * Metrics are off unless an implementation is installed; a manager without metrics
+ * does not record or time anything.
+ */
+public interface IConfigMetrics {
+
+    /**
+     * Get the recorder for the given configuration type. Called when a manager of the type
+     * is registered, not on the lookup path.
+     *
+     * @param configType The configuration type.
+     * @return The recorder receiving the events of the type.
+     */
+    IConfigTypeMetrics forType(String configType);
+}
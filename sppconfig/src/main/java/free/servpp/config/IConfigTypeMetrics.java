@@ -0,0 +1,46 @@
+package free.servpp.config;
+
+/**
+ * The IConfigTypeMetrics interface receives the resolution events of a single configuration type.
+ * Its methods are called on the lookup path and should therefore neither block nor allocate.
+ */
+public interface IConfigTypeMetrics {
+
+    /**
+     * Record a lookup that found a configuration.
+     *
+     * @param level  The level the configuration was found at.
+     * @param cached True if the resolved configuration was served from the cache.
+     */
+    void onLookup(IConfigManager.ConfigLevel level, boolean cached);
+
+    /**
+     * Record a lookup that found no configuration at any level.
+     */
+    void onMiss();
+
+    /**
+     * Record a lookup whose ID or modifier was known to have no entry, so that it fell back
+     * without probing the entries of that level.
+     *
+     * @param level The level that was skipped, ID or MODIFIER.
+     */
+    default void onAbsentKey(IConfigManager.ConfigLevel level) {
+    }
+
+    /**
+     * Record the merge of a configuration found at the given level with its fallbacks.
+     *
+     * @param level The level the merged configuration was found at.
+     * @param nanos The time the merge took, in nanoseconds.
+     */
+    void onMerge(IConfigManager.ConfigLevel level, long nanos);
+
+    /**
+     * Record the current number of entries of the type.
+     *
+     * @param configIds The number of entries registered by ID.
+     * @param modifiers The number of entries registered by modifier, including the default one.
+     */
+    void onEntries(int configIds, int modifiers);
+}
@@ -0,0 +1,302 @@
+package free.servpp.config;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Generates Java source implementing an interface. It can emit a class delegating every method,
+ * or a typed configuration binder: a class whose constructor reads the value of every interface
+ * method once from a HOCON Config into a final field, so later calls are plain field loads.
+ *
+ * Usage: java InterfaceImplementor [interface-name binder-name path-prefix [output-dir]]
+ *
+ * @author lidong@date 2024-08-05@version 1.0
+ */
+
+public class InterfaceImplementor {
+    static final String INTERFACENAME = "com.typesafe.config.Config";
+    static final String INITIALIMPLNAME = "AAA";
+    static final String NEWIMPLNAME = "ConfigImpl";
+
+    public static void main(String[] args) {
+//        if (args.length < 3) {
+//            System.out.println("Usage: java InterfaceImplementor <interface-name> <initial-impl-name> <new-impl-name>");
+//            return;
+//        }
+
+//        String interfaceName = args[0];
+//        String initialImplName = args[1];
+//        String newImplName = args[2];
+        String interfaceName = INTERFACENAME;
+        String initialImplName = INITIALIMPLNAME;
+        String newImplName = NEWIMPLNAME;
+
+        try {
+            if (args.length >= 3) {
+                Class<?> interfaceClass = Class.forName(args[0]);
+                if (args.length > 3) {
+                    File file = writeBinderSource(interfaceClass, args[1], args[2], new File(args[3]));
+                    System.out.println("Generated " + file);
+                } else {
+                    System.out.println(generateBinderSource(interfaceClass, args[1], args[2]));
+                }
+                return;
+            }
+            generateImplementation(interfaceName, initialImplName, newImplName);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Generates the source of a typed configuration binder for the given interface.
+     * The binder has the package of the interface and a constructor taking a
+     * {@code com.typesafe.config.Config}. The value of every abstract, parameterless interface
+     * method is read from the path {@code pathPrefix.methodName} in that constructor.
+     *
+     * @param interfaceClass the interface to implement
+     * @param binderName     the simple name of the generated class
+     * @param pathPrefix     the configuration path the method names are relative to, may be empty
+     * @return the Java source of the binder
+     * @throws IllegalArgumentException if a method has parameters or a return type that cannot be bound
+     */
+    public static String generateBinderSource(Class<?> interfaceClass, String binderName, String pathPrefix) {
+        if (!interfaceClass.isInterface())
+            throw new IllegalArgumentException(interfaceClass.getName() + " is not an interface");
+        String interfaceName = interfaceClass.getCanonicalName();
+        StringBuilder fields = new StringBuilder();
+        StringBuilder reads = new StringBuilder();
+        StringBuilder methods = new StringBuilder();
+        for (Method method : getBoundMethods(interfaceClass)) {
+            String type = getQualifiedTypeString(method.getGenericReturnType());
+            String name = method.getName();
+            fields.append("    private final ").append(type).append(" ").append(name).append(";\n");
+            reads.append("        this.").append(name).append(" = ")
+                    .append(getReadExpression(method, getBindingPath(pathPrefix, name))).append(";\n");
+            if (methods.length() > 0)
+                methods.append("\n");
+            methods.append("    @Override\n");
+            methods.append("    public ").append(type).append(" ").append(name).append("() {\n");
+            methods.append("        return ").append(name).append(";\n");
+            methods.append("    }\n");
+        }
+
+        StringBuilder code = new StringBuilder();
+        Package pkg = interfaceClass.getPackage();
+        if (pkg != null && !pkg.getName().isEmpty()) {
+            code.append("package ").append(pkg.getName()).append(";\n\n");
+        }
+        code.append("/**\n");
+        code.append(" * Generated by InterfaceImplementor from ").append(interfaceName).append(".\n");
+        code.append(" */\n");
+        code.append("public final class ").append(binderName).append(" implements ").append(interfaceName).append(" {\n");
+        code.append(fields).append("\n");
+        code.append("    public ").append(binderName).append("(com.typesafe.config.Config config) {\n");
+        code.append(reads);
+        code.append("    }\n\n");
+        code.append(methods);
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * Generates the source of a typed configuration binder and writes it below the output
+     * directory, in the directory of the interface package.
+     *
+     * @param interfaceClass the interface to implement
+     * @param binderName     the simple name of the generated class
+     * @param pathPrefix     the configuration path the method names are relative to, may be empty
+     * @param outputDir      the source root to write to
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public static File writeBinderSource(Class<?> interfaceClass, String binderName, String pathPrefix, File outputDir) throws IOException {
+        Package pkg = interfaceClass.getPackage();
+        File dir = pkg == null || pkg.getName().isEmpty() ? outputDir : new File(outputDir, pkg.getName().replace('.', File.separatorChar));
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Cannot create " + dir);
+        File file = new File(dir, binderName + ".java");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(generateBinderSource(interfaceClass, binderName, pathPrefix));
+        }
+        return file;
+    }
+
+    /**
+     * Returns the interface methods a binder implements: every abstract method, including inherited ones.
+     *
+     * @param interfaceClass the interface
+     * @return the methods to bind
+     * @throws IllegalArgumentException if a method has parameters
+     */
+    public static List<Method> getBoundMethods(Class<?> interfaceClass) {
+        List<Method> methods = new java.util.ArrayList<>();
+        for (Method method : interfaceClass.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()))
+                continue;
+            if (method.getParameterCount() != 0)
+                throw new IllegalArgumentException("Cannot bind " + method + ": it has parameters");
+            methods.add(method);
+        }
+        methods.sort(java.util.Comparator.comparing(Method::getName));
+        return methods;
+    }
+
+    /**
+     * Returns the configuration path bound to a method name.
+     *
+     * @param pathPrefix the configuration path the method names are relative to, may be empty
+     * @param name       the method name
+     * @return the configuration path
+     */
+    public static String getBindingPath(String pathPrefix, String name) {
+        return pathPrefix == null || pathPrefix.isEmpty() ? name : pathPrefix + "." + name;
+    }
+
+    private static String getReadExpression(Method method, String path) {
+        String quotedPath = "\"" + path.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        Class<?> type = method.getReturnType();
+        Type genericType = method.getGenericReturnType();
+        if (type == String.class)
+            return "config.getString(" + quotedPath + ")";
+        if (type == int.class || type == Integer.class)
+            return "config.getInt(" + quotedPath + ")";
+        if (type == long.class || type == Long.class)
+            return "config.getLong(" + quotedPath + ")";
+        if (type == double.class || type == Double.class)
+            return "config.getDouble(" + quotedPath + ")";
+        if (type == boolean.class || type == Boolean.class)
+            return "config.getBoolean(" + quotedPath + ")";
+        if (type == Number.class)
+            return "config.getNumber(" + quotedPath + ")";
+        if (type == Duration.class)
+            return "config.getDuration(" + quotedPath + ")";
+        if (type == Object.class)
+            return "config.getAnyRef(" + quotedPath + ")";
+        if (type.isEnum())
+            return "config.getEnum(" + type.getCanonicalName() + ".class, " + quotedPath + ")";
+        if (type.getName().equals("com.typesafe.config.Config"))
+            return "config.getConfig(" + quotedPath + ")";
+        if (type == List.class && genericType instanceof ParameterizedType) {
+            Type element = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (element == String.class)
+                return "java.util.List.copyOf(config.getStringList(" + quotedPath + "))";
+            if (element == Integer.class)
+                return "java.util.List.copyOf(config.getIntList(" + quotedPath + "))";
+            if (element == Long.class)
+                return "java.util.List.copyOf(config.getLongList(" + quotedPath + "))";
+            if (element == Double.class)
+                return "java.util.List.copyOf(config.getDoubleList(" + quotedPath + "))";
+            if (element == Boolean.class)
+                return "java.util.List.copyOf(config.getBooleanList(" + quotedPath + "))";
+        }
+        throw new IllegalArgumentException("Cannot bind " + method + ": unsupported type " + genericType.getTypeName());
+    }
+
+    private static String getQualifiedTypeString(Type type) {
+        if (type instanceof Class<?>) {
+            return ((Class<?>) type).getCanonicalName();
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            StringBuilder typeString = new StringBuilder(getQualifiedTypeString(pType.getRawType()));
+            Type[] typeArguments = pType.getActualTypeArguments();
+            typeString.append("<");
+            for (int i = 0; i < typeArguments.length; i++) {
+                if (i > 0) {
+                    typeString.append(", ");
+                }
+                typeString.append(getQualifiedTypeString(typeArguments[i]));
+            }
+            typeString.append(">");
+            return typeString.toString();
+        } else {
+            return type.getTypeName();
+        }
+    }
+
+    public static void generateImplementation(String interfaceName, String initialImplName, String newImplName) throws ClassNotFoundException, IOException {
+        Class<?> interfaceClass = Class.forName(interfaceName);
+//        Class<?> initialImplClass = Class.forName(initialImplName);
+
+        StringBuilder code = new StringBuilder();
+        code.append("public class ").append(newImplName).append(" implements ").append(interfaceName).append(" {\n");
+        code.append("    private final ").append(interfaceName).append(" delegate = new ").append(initialImplName).append("();\n\n");
+
+        for (Method method : interfaceClass.getDeclaredMethods()) {
+            appendMethodWithGenerics(code, method);
+        }
+        code.append("}\n");
+
+//        String fileName = newImplName + ".java";
+//        try (FileWriter writer = new FileWriter(fileName)) {
+//            writer.write(code.toString());
+//        }
+//
+//        System.out.println("Generated " + fileName);
+        System.out.println(code);
+
+    }
+
+    private static void appendMethodWithGenerics(StringBuilder code, Method method) {
+        code.append("    @Override\n");
+
+        // Append method return type with generics
+        Type returnType = method.getGenericReturnType();
+        code.append("    public ").append(getTypeString(returnType)).append(" ").append(method.getName()).append("(");
+
+        // Append method parameters with generics
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            code.append(getTypeString(parameters[i].getParameterizedType())).append(" ").append(parameters[i].getName());
+        }
+        code.append(") {\n");
+
+        // Append method body with delegation
+        if (!returnType.equals(void.class)) {
+            code.append("        return ");
+        } else {
+            code.append("        ");
+        }
+        code.append("delegate.").append(method.getName()).append("(");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                code.append(", ");
+            }
+            code.append(parameters[i].getName());
+        }
+        code.append(");\n");
+        code.append("    }\n\n");
+    }
+
+    private static String getTypeString(Type type) {
+        if (type instanceof Class<?>) {
+            return ((Class<?>) type).getSimpleName();
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            StringBuilder typeString = new StringBuilder(getTypeString(pType.getRawType()));
+            Type[] typeArguments = pType.getActualTypeArguments();
+            if (typeArguments.length > 0) {
+                typeString.append("<");
+                for (int i = 0; i < typeArguments.length; i++) {
+                    if (i > 0) {
+                        typeString.append(", ");
+                    }
+                    typeString.append(getTypeString(typeArguments[i]));
+                }
+                typeString.append(">");
+            }
+            return typeString.toString();
+        } else if (type instanceof TypeVariable<?>) {
+            return ((TypeVariable<?>) type).getName();
+        } else {
+            return type.toString();
+        }
+    }
+
+}
\ No newline at end of file
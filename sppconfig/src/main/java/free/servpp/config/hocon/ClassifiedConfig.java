@@ -0,0 +1,65 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.IConfigManager;
+
+/**
+ * The ClassifiedConfig class is one entry of a HoconConfigManager as found by the
+ * classification pass of HoconConfigLoader: a configuration together with the level
+ * and key under which it is registered. Entries carry their key, so the builder is
+ * not consulted again when they are added to a manager.
+ *
+ * An entry expanded from a list of IDs or modifiers is a small delta over the configuration
+ * of its source, which is shared by all entries of that source.
+ */
+final class ClassifiedConfig {
+    private final Config config;
+    private final Config base;
+    private final IConfigManager.ConfigLevel level;
+    private final String key;
+
+    /**
+     * Constructs a ClassifiedConfig.
+     *
+     * @param config the configuration of the entry
+     * @param level  ID for an entry registered by ID, MODIFIER or DEFAULT for one registered by modifier
+     * @param key    the ID or modifier of the entry; the default modifier for a DEFAULT entry
+     */
+    ClassifiedConfig(Config config, IConfigManager.ConfigLevel level, String key) {
+        this(config, null, level, key);
+    }
+
+    /**
+     * Constructs a ClassifiedConfig consisting of a delta over a shared base configuration.
+     *
+     * @param delta the entries specific to this entry, such as its ID or modifier
+     * @param base  the configuration of the source, shared with the other entries expanded from it
+     * @param level ID for an entry registered by ID, MODIFIER for one registered by modifier
+     * @param key   the ID or modifier of the entry
+     */
+    ClassifiedConfig(Config delta, Config base, IConfigManager.ConfigLevel level, String key) {
+        this.config = delta;
+        this.base = base;
+        this.level = level;
+        this.key = key;
+    }
+
+    Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Creates the configuration of this entry, sharing the base if there is one.
+     */
+    HoconConfigImpl toHoconConfig() {
+        return base == null ? new HoconConfigImpl(config) : new HoconConfigImpl(config, base);
+    }
+
+    IConfigManager.ConfigLevel getLevel() {
+        return level;
+    }
+
+    String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,358 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import free.servpp.config.IConfig;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompiledConfigFile class writes the classified state of a HoconConfigTypeManager to a
+ * compact binary file and reads it back, so that a later start can skip HOCON parsing.
+ * The file holds every type with its ID and modifier entries and their configuration trees,
+ * together with a hash of the sources it was compiled from. Reading memory-maps the file
+ * and only accepts it if the hash matches the current sources.
+ *
+ * Layout: magic, version, source hash, then per type its name, ID entries and modifier
+ * entries. Values are tagged; strings are written once and referenced by index afterwards.
+ * An entry that is a delta over a shared base is written as its delta and a reference to
+ * the base, which is written once like a string, so the sharing survives the round trip.
+ * Mapped and flattened entries are written as their decoded trees and read back as
+ * HoconConfigImpl instances.
+ *
+ * The same format is used for the index resource written at build time by the Maven plugin.
+ * It is found on the classpath under {@link #getIndexResourceName(String)} and trusted
+ * without a hash check, since its sources are fixed at build time.
+ */
+public final class CompiledConfigFile {
+    private static final int MAGIC = 0x53505043; // "SPPC"
+    private static final int VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte LIST = 6;
+    private static final byte OBJECT = 7;
+
+    // Marks a string or base written in full; any other value is the index of one written before.
+    private static final int NEW_STRING = -1;
+    // Marks an entry without a shared base.
+    private static final int NO_BASE = -2;
+
+    private static final String INDEX_RESOURCE_DIR = "META-INF/sppconfig/";
+
+    private CompiledConfigFile() {
+    }
+
+    /**
+     * Writes the entries of all types of the manager to the given file. The file is written
+     * next to its destination and then moved in place, so readers never see a partial file.
+     *
+     * @param manager    the manager whose entries are written
+     * @param sourceHash the hash of the sources the entries were loaded from
+     * @param file       the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(HoconConfigTypeManager manager, byte[] sourceHash, File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(stream)));
+                writer.out.writeInt(MAGIC);
+                writer.out.writeInt(VERSION);
+                writer.out.writeInt(sourceHash.length);
+                writer.out.write(sourceHash);
+                List<String> types = new ArrayList<>(manager.getConfigTypes());
+                writer.out.writeInt(types.size());
+                for (String type : types) {
+                    HoconConfigManager typeManager = manager.getHoconConfigManager(type);
+                    writer.writeString(type);
+                    writer.writeEntries(typeManager.getConfigsById());
+                    writer.writeEntries(typeManager.getConfigsByModifier());
+                }
+                writer.out.flush();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the classpath resource name of the build-time index of the given resource directory.
+     *
+     * @param resourceDir the directory from which configuration files are loaded
+     * @return the resource name of the index
+     */
+    public static String getIndexResourceName(String resourceDir) {
+        String dir = resourceDir.replaceAll("^/+|/+$", "");
+        return INDEX_RESOURCE_DIR + (dir.isEmpty() ? "root" : dir.replace('/', '.')) + ".spc";
+    }
+
+    /**
+     * Reads the given file into the manager if it was compiled from sources with the given hash.
+     * Every type in the file replaces the manager of that type.
+     *
+     * @param file       the file to read
+     * @param sourceHash the hash of the current sources
+     * @param manager    the manager to install the entries into
+     * @return true if the file was read; false if it is missing, of another version, or stale
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static boolean read(File file, byte[] sourceHash, HoconConfigTypeManager manager) throws IOException {
+        if (!file.isFile())
+            return false;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, sourceHash, file.getPath(), manager);
+        }
+    }
+
+    /**
+     * Reads compiled configurations from a buffer into the manager, for example an index resource
+     * read from the classpath. Every type in the buffer replaces the manager of that type.
+     *
+     * @param buffer      the compiled configurations
+     * @param sourceHash  the hash of the current sources, or null to accept any sources
+     * @param description the location of the compiled configurations, used in errors and origins
+     * @param manager     the manager to install the entries into
+     * @return true if the buffer was read; false if it is of another version or stale
+     * @throws IOException if the buffer is corrupt
+     */
+    public static boolean read(ByteBuffer buffer, byte[] sourceHash, String description, HoconConfigTypeManager manager) throws IOException {
+        try {
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return false;
+            byte[] hash = new byte[buffer.getInt()];
+            buffer.get(hash);
+            if (sourceHash != null && !Arrays.equals(hash, sourceHash))
+                return false;
+            Reader reader = new Reader(buffer, description);
+            int typeCount = buffer.getInt();
+            Map<String, HoconConfigManager> managers = new LinkedHashMap<>();
+            for (int i = 0; i < typeCount; i++) {
+                String type = reader.readString();
+                HoconConfigManager typeManager = new HoconConfigManager(type);
+                typeManager.addConfigs(reader.readEntries(), reader.readEntries());
+                managers.put(type, typeManager);
+            }
+            manager.replaceManagers(managers);
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt compiled config " + description, e);
+        }
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Config, Integer> bases = new IdentityHashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeEntries(Map<String, IConfig> entries) throws IOException {
+            out.writeInt(entries.size());
+            for (Map.Entry<String, IConfig> entry : entries.entrySet()) {
+                writeString(entry.getKey());
+                IConfig config = entry.getValue();
+                Config base = config instanceof HoconConfigImpl ? ((HoconConfigImpl) config).getBase() : null;
+                if (base == null) {
+                    out.writeInt(NO_BASE);
+                    writeValue(HoconConfigImpl.toConfig(config).root());
+                } else {
+                    writeBase(base);
+                    writeValue(((HoconConfigImpl) config).getDelta().root());
+                }
+            }
+        }
+
+        private void writeBase(Config base) throws IOException {
+            Integer index = bases.get(base);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            bases.put(base, bases.size());
+            out.writeInt(NEW_STRING);
+            writeValue(base.root());
+        }
+
+        private void writeValue(ConfigValue value) throws IOException {
+            switch (value.valueType()) {
+                case OBJECT:
+                    ConfigObject object = (ConfigObject) value;
+                    out.writeByte(OBJECT);
+                    out.writeInt(object.size());
+                    for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+                        writeString(entry.getKey());
+                        writeValue(entry.getValue());
+                    }
+                    break;
+                case LIST:
+                    ConfigList list = (ConfigList) value;
+                    out.writeByte(LIST);
+                    out.writeInt(list.size());
+                    for (ConfigValue element : list) {
+                        writeValue(element);
+                    }
+                    break;
+                case NUMBER:
+                    Object number = value.unwrapped();
+                    if (number instanceof Integer) {
+                        out.writeByte(INT);
+                        out.writeInt((Integer) number);
+                    } else if (number instanceof Long) {
+                        out.writeByte(LONG);
+                        out.writeLong((Long) number);
+                    } else {
+                        out.writeByte(DOUBLE);
+                        out.writeDouble(((Number) number).doubleValue());
+                    }
+                    break;
+                case BOOLEAN:
+                    out.writeByte(BOOLEAN);
+                    out.writeBoolean((Boolean) value.unwrapped());
+                    break;
+                case STRING:
+                    out.writeByte(STRING);
+                    writeString((String) value.unwrapped());
+                    break;
+                case NULL:
+                    out.writeByte(NULL);
+                    break;
+                default:
+                    throw new IOException("Unsupported value type " + value.valueType());
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            Integer index = strings.get(s);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            strings.put(s, strings.size());
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(NEW_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final String description;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Config> bases = new ArrayList<>();
+
+        private Reader(ByteBuffer buffer, String file) {
+            this.buffer = buffer;
+            this.description = "compiled config " + file;
+        }
+
+        private Map<String, IConfig> readEntries() {
+            int count = buffer.getInt();
+            Map<String, IConfig> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = readString();
+                int baseIndex = buffer.getInt();
+                Config base = null;
+                if (baseIndex == NEW_STRING) {
+                    base = readConfig(key);
+                    bases.add(base);
+                } else if (baseIndex != NO_BASE) {
+                    base = bases.get(baseIndex);
+                }
+                Config config = readConfig(key);
+                entries.put(key, base == null ? new HoconConfigImpl(config) : new HoconConfigImpl(config, base));
+            }
+            return entries;
+        }
+
+        private Config readConfig(String key) {
+            if (buffer.get() != OBJECT)
+                throw new IllegalArgumentException("Entry " + key + " is not an object");
+            return ConfigValueFactory.fromMap(readObject(), description).toConfig();
+        }
+
+        private Object readValue() {
+            byte tag = buffer.get();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case BOOLEAN:
+                    return buffer.get() != 0;
+                case INT:
+                    return buffer.getInt();
+                case LONG:
+                    return buffer.getLong();
+                case DOUBLE:
+                    return buffer.getDouble();
+                case STRING:
+                    return readString();
+                case LIST:
+                    int size = buffer.getInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                case OBJECT:
+                    return readObject();
+                default:
+                    throw new IllegalArgumentException("Unknown value tag " + tag);
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            int size = buffer.getInt();
+            Map<String, Object> object = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                object.put(key, readValue());
+            }
+            return object;
+        }
+
+        private String readString() {
+            int index = buffer.getInt();
+            if (index != NEW_STRING)
+                return strings.get(index);
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(s);
+            return s;
+        }
+    }
+}
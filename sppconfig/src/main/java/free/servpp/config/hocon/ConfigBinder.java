@@ -0,0 +1,244 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.IConfig;
+import free.servpp.config.InterfaceImplementor;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The ConfigBinder class binds resolved configurations to user interfaces at runtime.
+ * For an interface such as {@code ServiceConfig { String header(); Duration timeout(); }}
+ * it returns an implementation whose values are read once from the configuration, so
+ * that calls on the hot path are plain field loads instead of path lookups.
+ *
+ * The implementation is the binder source generated by InterfaceImplementor, compiled in
+ * memory and defined as a hidden class next to the interface. For build-time generation,
+ * use {@link InterfaceImplementor#writeBinderSource}.
+ *
+ * Where no compiler is available, or the interface is not accessible to a hidden class,
+ * the binder falls back to a degraded mode: the failure is logged once per interface and
+ * prefix, and a {@link Proxy} over the values read at bind time is returned instead. The
+ * values are the same, but every call goes through reflective dispatch and a map lookup,
+ * so it is not a plain field load. Applications that depend on the cost of the compiled
+ * binder should ship a binder generated at build time rather than rely on the fallback.
+ */
+public final class ConfigBinder {
+    // Binder factories by path prefix, stored on the interface so that they do not pin its class loader.
+    private static final ClassValue<Map<String, Function<Config, ?>>> FACTORIES = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Config, ?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ConfigBinder() {
+    }
+
+    /**
+     * Binds a resolved configuration to the given interface. A mapped or flattened
+     * configuration is decoded into a HOCON configuration first.
+     *
+     * @param interfaceClass the interface to implement
+     * @param config         the resolved configuration to read the values from
+     * @param pathPrefix     the configuration path the method names are relative to, may be empty
+     * @return an implementation of the interface holding the values of the configuration
+     * @throws IllegalArgumentException if the configuration is not one of this package
+     */
+    public static <T> T bind(Class<T> interfaceClass, IConfig<?> config, String pathPrefix) {
+        return getFactory(interfaceClass, pathPrefix).apply(HoconConfigImpl.toConfig(config));
+    }
+
+    /**
+     * Returns the factory creating bound implementations of the given interface. The factory
+     * is created once per interface and prefix. It is compiled outside of the factory map, so
+     * concurrent first calls may compile it more than once, but all of them get the same one.
+     *
+     * @param interfaceClass the interface to implement
+     * @param pathPrefix     the configuration path the method names are relative to, may be empty
+     * @return the factory of bound implementations
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<Config, T> getFactory(Class<T> interfaceClass, String pathPrefix) {
+        String prefix = pathPrefix == null ? "" : pathPrefix;
+        Map<String, Function<Config, ?>> factories = FACTORIES.get(interfaceClass);
+        Function<Config, ?> factory = factories.get(prefix);
+        if (factory == null) {
+            factory = createFactory(interfaceClass, prefix);
+            Function<Config, ?> existing = factories.putIfAbsent(prefix, factory);
+            if (existing != null)
+                factory = existing;
+        }
+        return (Function<Config, T>) factory;
+    }
+
+    private static <T> Function<Config, T> createFactory(Class<T> interfaceClass, String pathPrefix) {
+        // Validates the interface and its return types before anything is compiled
+        List<Method> methods = InterfaceImplementor.getBoundMethods(interfaceClass);
+        String binderName = interfaceClass.getSimpleName() + "Binder";
+        String source = InterfaceImplementor.generateBinderSource(interfaceClass, binderName, pathPrefix);
+        try {
+            return createHiddenClassFactory(interfaceClass, binderName, source);
+        } catch (Exception | LinkageError e) {
+            // Typically there is no compiler on a JRE, or the interface is not on java.class.path
+            // in an application server or a fat jar
+            System.getLogger(ConfigBinder.class.getName()).log(System.Logger.Level.WARNING,
+                    "Cannot compile a binder for " + interfaceClass.getName()
+                            + ", binding it through a reflective proxy, which is slower on every call", e);
+            return createProxyFactory(interfaceClass, pathPrefix, methods);
+        }
+    }
+
+    /**
+     * Compiles the generated binder source and defines it as a hidden class in the package of the interface.
+     */
+    private static <T> Function<Config, T> createHiddenClassFactory(Class<T> interfaceClass, String binderName, String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("No Java compiler available");
+        Package pkg = interfaceClass.getPackage();
+        String className = pkg == null || pkg.getName().isEmpty() ? binderName : pkg.getName() + "." + binderName;
+
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classes.computeIfAbsent(name, n -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        };
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-proc:none");
+        try (fileManager) {
+            if (!compiler.getTask(null, fileManager, null, options, null, List.of(sourceFile)).call())
+                throw new IllegalStateException("Cannot compile binder for " + interfaceClass.getName());
+        }
+        ByteArrayOutputStream bytes = classes.get(className);
+        if (bytes == null)
+            throw new IllegalStateException("No class generated for " + className);
+
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(interfaceClass, MethodHandles.lookup())
+                .defineHiddenClass(bytes.toByteArray(), true);
+        MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Config.class))
+                .asType(MethodType.methodType(Object.class, Config.class));
+        return config -> {
+            try {
+                return interfaceClass.cast(constructor.invokeExact(config));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    /**
+     * Creates proxies answering every method from the values read at bind time. This is the
+     * degraded mode of the binder: the values match those of the compiled binder, but each
+     * call costs a reflective dispatch and a map lookup.
+     */
+    private static <T> Function<Config, T> createProxyFactory(Class<T> interfaceClass, String pathPrefix, List<Method> methods) {
+        return config -> {
+            Map<Method, Object> values = new HashMap<>();
+            for (Method method : methods) {
+                values.put(method, readValue(config, method, InterfaceImplementor.getBindingPath(pathPrefix, method.getName())));
+            }
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (values.containsKey(method))
+                    return values.get(method);
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return interfaceClass.getSimpleName() + values.values();
+                    default:
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                }
+            };
+            return interfaceClass.cast(Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[]{interfaceClass}, handler));
+        };
+    }
+
+    /**
+     * Reads the value of a method with the same typed getters as the generated binder source.
+     */
+    private static Object readValue(Config config, Method method, String path) {
+        Class<?> type = method.getReturnType();
+        if (type == String.class)
+            return config.getString(path);
+        if (type == int.class || type == Integer.class)
+            return config.getInt(path);
+        if (type == long.class || type == Long.class)
+            return config.getLong(path);
+        if (type == double.class || type == Double.class)
+            return config.getDouble(path);
+        if (type == boolean.class || type == Boolean.class)
+            return config.getBoolean(path);
+        if (type == Number.class)
+            return config.getNumber(path);
+        if (type == Duration.class)
+            return config.getDuration(path);
+        if (type == Config.class)
+            return config.getConfig(path);
+        if (type.isEnum())
+            return readEnum(config, type.asSubclass(Enum.class), path);
+        if (type == List.class)
+            return readList(config, method, path);
+        return config.getAnyRef(path);
+    }
+
+    private static List<?> readList(Config config, Method method, String path) {
+        Type element = ((ParameterizedType) method.getGenericReturnType()).getActualTypeArguments()[0];
+        if (element == String.class)
+            return List.copyOf(config.getStringList(path));
+        if (element == Integer.class)
+            return List.copyOf(config.getIntList(path));
+        if (element == Long.class)
+            return List.copyOf(config.getLongList(path));
+        if (element == Double.class)
+            return List.copyOf(config.getDoubleList(path));
+        return List.copyOf(config.getBooleanList(path));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(Config config, Class<? extends Enum> type, String path) {
+        return config.getEnum((Class) type, path);
+    }
+}
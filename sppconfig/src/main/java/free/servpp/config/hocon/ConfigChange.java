@@ -0,0 +1,137 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ConfigChange class describes how one configuration changed when a new set of entries
+ * was installed for its type: the paths whose values were added, changed or removed, with
+ * their old and new values.
+ *
+ * A change either concerns an entry as it was added, identified by its ID or its modifier,
+ * or the configuration resolved for a caller with the given ID and modifier, depending on
+ * the ConfigChangeFilter it was delivered for.
+ */
+public final class ConfigChange {
+    private final String configType;
+    private final String configId;
+    private final String modifier;
+    private final List<PathChange> changes;
+
+    ConfigChange(String configType, String configId, String modifier, List<PathChange> changes) {
+        this.configType = configType;
+        this.configId = configId;
+        this.modifier = modifier;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Retrieves the type of the changed configuration.
+     *
+     * @return The configuration type.
+     */
+    public String getConfigType() {
+        return configType;
+    }
+
+    /**
+     * Retrieves the ID of the changed configuration.
+     *
+     * @return The configuration ID, or null for an entry added by modifier.
+     */
+    public String getConfigId() {
+        return configId;
+    }
+
+    /**
+     * Retrieves the modifier of the changed configuration.
+     *
+     * @return The modifier, or null for an entry added by ID.
+     */
+    public String getModifier() {
+        return modifier;
+    }
+
+    /**
+     * Retrieves the changed paths, in path order.
+     *
+     * @return An unmodifiable list of the changed paths.
+     */
+    public List<PathChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the part of this change at or below the given path.
+     *
+     * @param pathPrefix The path to restrict the change to, or null for the whole change.
+     * @return The restricted change, which may have no changed paths.
+     */
+    ConfigChange under(String pathPrefix) {
+        if (pathPrefix == null)
+            return this;
+        List<PathChange> matching = new ArrayList<>();
+        for (PathChange change : changes) {
+            String path = change.getPath();
+            if (path.equals(pathPrefix) || path.startsWith(pathPrefix + "."))
+                matching.add(change);
+        }
+        return matching.size() == changes.size() ? this : new ConfigChange(configType, configId, modifier, matching);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChange{" + configType + ", id=" + configId + ", modifier=" + modifier + ", " + changes + "}";
+    }
+
+    /**
+     * The PathChange class is the change of the value at a single path.
+     */
+    public static final class PathChange {
+        private final String path;
+        private final ConfigValue oldValue;
+        private final ConfigValue newValue;
+
+        PathChange(String path, ConfigValue oldValue, ConfigValue newValue) {
+            this.path = path;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        /**
+         * Retrieves the full path of the changed value.
+         *
+         * @return The path.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Retrieves the value before the change.
+         *
+         * @return The old value, or null if the path was added.
+         */
+        public ConfigValue getOldValue() {
+            return oldValue;
+        }
+
+        /**
+         * Retrieves the value after the change.
+         *
+         * @return The new value, or null if the path was removed.
+         */
+        public ConfigValue getNewValue() {
+            return newValue;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": " + (oldValue == null ? "<none>" : oldValue.render())
+                    + " -> " + (newValue == null ? "<none>" : newValue.render());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package free.servpp.config.hocon;
+
+/**
+ * The ConfigChangeFilter class selects the changes a subscriber receives:
+ * <ul>
+ *   <li>{@link #allTypes()} and {@link #ofType(String)} deliver a change for every entry
+ *   that was added, replaced or removed, identified by its ID or modifier;</li>
+ *   <li>{@link #ofConfig(String, String, String)} delivers the change of the configuration
+ *   resolved for a caller with the given ID and modifier, which includes changes of the
+ *   modifier and default entries it falls back to.</li>
+ * </ul>
+ * Either can be restricted to the paths at or below a prefix with {@link #under(String)}.
+ */
+public final class ConfigChangeFilter {
+    private final String configType;
+    private final boolean resolved;
+    private final String configId;
+    private final String modifier;
+    private final String pathPrefix;
+
+    private ConfigChangeFilter(String configType, boolean resolved, String configId, String modifier, String pathPrefix) {
+        this.configType = configType;
+        this.resolved = resolved;
+        this.configId = configId;
+        this.modifier = modifier;
+        this.pathPrefix = pathPrefix;
+    }
+
+    /**
+     * Selects the changed entries of every type.
+     *
+     * @return The filter.
+     */
+    public static ConfigChangeFilter allTypes() {
+        return new ConfigChangeFilter(null, false, null, null, null);
+    }
+
+    /**
+     * Selects the changed entries of one type.
+     *
+     * @param configType The configuration type.
+     * @return The filter.
+     */
+    public static ConfigChangeFilter ofType(String configType) {
+        return new ConfigChangeFilter(configType, false, null, null, null);
+    }
+
+    /**
+     * Selects the changes of the configuration resolved for a caller.
+     *
+     * @param configType The configuration type.
+     * @param configId   The configuration ID of the caller, may be null.
+     * @param modifier   The modifier of the caller, may be null.
+     * @return The filter.
+     */
+    public static ConfigChangeFilter ofConfig(String configType, String configId, String modifier) {
+        return new ConfigChangeFilter(configType, true, configId, modifier, null);
+    }
+
+    /**
+     * Restricts this filter to the paths at or below the given path.
+     *
+     * @param pathPrefix The path.
+     * @return The restricted filter.
+     */
+    public ConfigChangeFilter under(String pathPrefix) {
+        return new ConfigChangeFilter(configType, resolved, configId, modifier, pathPrefix);
+    }
+
+    String getConfigType() {
+        return configType;
+    }
+
+    boolean isResolved() {
+        return resolved;
+    }
+
+    String getConfigId() {
+        return configId;
+    }
+
+    String getModifier() {
+        return modifier;
+    }
+
+    String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    boolean matchesType(String type) {
+        return configType == null || configType.equals(type);
+    }
+}
@@ -0,0 +1,241 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigValue;
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The ConfigChangePublisher class delivers the changes between the old and the new entries
+ * of a type to the subscribers whose filters select them. Every change is diffed once, no
+ * matter how many subscribers receive it, and delivered through a SubmissionPublisher per
+ * subscriber, so a slow subscriber neither blocks the installation of new entries nor
+ * other subscribers. A subscriber that has no room in its buffer for a change is failed
+ * instead: it receives onError with an IllegalStateException and is unsubscribed, since
+ * the changes it received no longer add up to the current entries. It should re-read the
+ * configurations it depends on and subscribe again.
+ *
+ * Changes are diffed on the common pool, one publication at a time in the order they were
+ * published, so that a writer holding the lock of its manager only enqueues the snapshots.
+ * Resolving the entries to diff them neither fills the resolved caches of the snapshots nor
+ * counts in the merge metrics. An entry that cannot be diffed, for example because it has
+ * unresolved substitutions, is logged and left out of the changes.
+ */
+final class ConfigChangePublisher {
+    private static final System.Logger LOGGER = System.getLogger(ConfigChangePublisher.class.getName());
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Executor executor = ForkJoinPool.commonPool();
+    // The publications not diffed yet, in publication order, and whether a task is draining them.
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Subscribes to the changes selected by a filter.
+     *
+     * @param filter     The changes to deliver.
+     * @param subscriber The subscriber to deliver them to.
+     */
+    void subscribe(ConfigChangeFilter filter, Flow.Subscriber<? super ConfigChange> subscriber) {
+        SubmissionPublisher<ConfigChange> publisher = new SubmissionPublisher<>();
+        publisher.subscribe(subscriber);
+        subscriptions.add(new Subscription(filter, publisher));
+    }
+
+    /**
+     * Moves the subscriptions of another publisher to this one, so that they keep receiving
+     * changes after a manager starts delivering through this publisher.
+     *
+     * @param other The publisher whose subscriptions are moved.
+     */
+    void takeSubscriptions(ConfigChangePublisher other) {
+        for (Subscription subscription : other.subscriptions) {
+            subscriptions.add(subscription);
+            other.subscriptions.remove(subscription);
+        }
+    }
+
+    /**
+     * Returns whether there is any subscriber, so that callers can skip preparing a change.
+     *
+     * @return true if there are subscriptions.
+     */
+    boolean hasSubscriptions() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Delivers the changes between two snapshots of a type. The changes are diffed and
+     * delivered asynchronously, after those of earlier calls.
+     *
+     * @param configType The configuration type.
+     * @param before     The entries before the change, or null if the type had none.
+     * @param after      The entries after the change.
+     */
+    void publish(String configType, HoconConfigManager.Snapshot before, HoconConfigManager.Snapshot after) {
+        pending.add(() -> deliver(configType, before, after));
+        if (draining.compareAndSet(false, true))
+            executor.execute(this::drain);
+    }
+
+    private void drain() {
+        do {
+            Runnable task;
+            while ((task = pending.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Delivering config changes failed", e);
+                }
+            }
+            draining.set(false);
+            // A publication added after the last poll is drained here unless another task took over
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void deliver(String configType, HoconConfigManager.Snapshot before, HoconConfigManager.Snapshot after) {
+        List<ConfigChange> entryChanges = null;
+        Map<ConfigKey, ConfigChange> resolvedChanges = new HashMap<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.publisher.isClosed() || !subscription.publisher.hasSubscribers()) {
+                subscription.publisher.close();
+                subscriptions.remove(subscription);
+                continue;
+            }
+            ConfigChangeFilter filter = subscription.filter;
+            if (!filter.matchesType(configType))
+                continue;
+            if (filter.isResolved()) {
+                ConfigKey key = new ConfigKey(filter.getConfigId(), filter.getModifier());
+                ConfigChange change = resolvedChanges.computeIfAbsent(key, k -> diffResolved(configType, k, before, after));
+                if (change != null)
+                    subscription.offer(change);
+            } else {
+                if (entryChanges == null)
+                    entryChanges = diffEntries(configType, before, after);
+                for (ConfigChange change : entryChanges) {
+                    subscription.offer(change);
+                }
+            }
+        }
+    }
+
+    private static List<ConfigChange> diffEntries(String configType, HoconConfigManager.Snapshot before, HoconConfigManager.Snapshot after) {
+        List<ConfigChange> changes = new ArrayList<>();
+        Map<String, IConfig> beforeById = before == null ? Collections.emptyMap() : before.configsById;
+        Map<String, IConfig> beforeByModifier = before == null ? Collections.emptyMap() : before.configsByModifier;
+        for (String configId : union(beforeById.keySet(), after.configsById.keySet())) {
+            addChange(changes, configType, configId, null, beforeById.get(configId), after.configsById.get(configId));
+        }
+        for (String modifier : union(beforeByModifier.keySet(), after.configsByModifier.keySet())) {
+            addChange(changes, configType, null, modifier, beforeByModifier.get(modifier), after.configsByModifier.get(modifier));
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the change of the configuration resolved for a key, or null if it cannot be diffed.
+     */
+    private static ConfigChange diffResolved(String configType, ConfigKey key, HoconConfigManager.Snapshot before, HoconConfigManager.Snapshot after) {
+        try {
+            IConfig oldConfig = before == null ? null : before.resolveUnmetered(key);
+            IConfig newConfig = after.resolveUnmetered(key);
+            return new ConfigChange(configType, key.getConfigId(), key.getModifier(), diff(oldConfig, newConfig));
+        } catch (ConfigException e) {
+            logSkipped(configType, key.getConfigId(), key.getModifier(), e);
+            return null;
+        }
+    }
+
+    private static void addChange(List<ConfigChange> changes, String configType, String configId, String modifier,
+                                  IConfig oldConfig, IConfig newConfig) {
+        if (oldConfig == newConfig)
+            return;
+        List<ConfigChange.PathChange> paths;
+        try {
+            paths = diff(oldConfig, newConfig);
+        } catch (ConfigException e) {
+            logSkipped(configType, configId, modifier, e);
+            return;
+        }
+        if (!paths.isEmpty())
+            changes.add(new ConfigChange(configType, configId, modifier, paths));
+    }
+
+    private static void logSkipped(String configType, String configId, String modifier, ConfigException e) {
+        LOGGER.log(System.Logger.Level.WARNING, "Cannot diff the changes of " + configType + " ID " + configId
+                + " modifier " + modifier + "; they are not delivered", e);
+    }
+
+    /**
+     * Returns the paths whose values differ between two configurations, in path order.
+     * Values are compared by content, not by origin.
+     */
+    static List<ConfigChange.PathChange> diff(IConfig oldConfig, IConfig newConfig) {
+        Map<String, ConfigValue> oldValues = new HashMap<>();
+        if (oldConfig != null) {
+            for (Map.Entry<String, ConfigValue> entry : HoconConfigImpl.toConfig(oldConfig).entrySet()) {
+                oldValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<ConfigChange.PathChange> changes = new ArrayList<>();
+        if (newConfig != null) {
+            for (Map.Entry<String, ConfigValue> entry : HoconConfigImpl.toConfig(newConfig).entrySet()) {
+                ConfigValue oldValue = oldValues.remove(entry.getKey());
+                if (oldValue == null || !oldValue.equals(entry.getValue()))
+                    changes.add(new ConfigChange.PathChange(entry.getKey(), oldValue, entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, ConfigValue> entry : oldValues.entrySet()) {
+            changes.add(new ConfigChange.PathChange(entry.getKey(), entry.getValue(), null));
+        }
+        changes.sort((a, b) -> a.getPath().compareTo(b.getPath()));
+        return changes;
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> ret = new LinkedHashSet<>(a);
+        ret.addAll(b);
+        return ret;
+    }
+
+    /**
+     * A subscriber together with its filter and the publisher delivering to it.
+     */
+    private static final class Subscription {
+        private final ConfigChangeFilter filter;
+        private final SubmissionPublisher<ConfigChange> publisher;
+
+        private Subscription(ConfigChangeFilter filter, SubmissionPublisher<ConfigChange> publisher) {
+            this.filter = filter;
+            this.publisher = publisher;
+        }
+
+        private void offer(ConfigChange change) {
+            ConfigChange selected = change.under(filter.getPathPrefix());
+            if (!selected.getChanges().isEmpty())
+                publisher.offer(selected, (subscriber, dropped) -> {
+                    publisher.closeExceptionally(new IllegalStateException(
+                            "Config changes were dropped because the subscriber fell behind; re-read the configurations"));
+                    return false;
+                });
+        }
+    }
+}
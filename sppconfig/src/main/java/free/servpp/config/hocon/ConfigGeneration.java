@@ -0,0 +1,93 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigurable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ConfigGeneration class is an immutable view of the entries of all types of a
+ * HoconConfigTypeManager at one point in time, numbered by generation. A request acquires
+ * a generation once and resolves every type from it, so that all its reads see the same
+ * state even while configurations are reloaded:
+ * <pre>
+ * ConfigGeneration generation = typeManager.acquireGeneration();
+ * IConfig service = generation.getConfig("service", configurable);
+ * IConfig app = generation.getConfig("app", configurable);
+ * </pre>
+ * A generation only references immutable snapshots and is never updated; it is reclaimed by
+ * the garbage collector once no reader holds it.
+ */
+public final class ConfigGeneration {
+    private final long generation;
+    private final Map<String, HoconConfigManager.Snapshot> snapshots;
+    // The types pending in a lazy load when this generation was acquired.
+    private final Set<String> pendingTypes;
+    private final HoconConfigTypeManager typeManager;
+
+    ConfigGeneration(long generation, Map<String, HoconConfigManager.Snapshot> snapshots, Set<String> pendingTypes,
+                     HoconConfigTypeManager typeManager) {
+        this.generation = generation;
+        this.snapshots = snapshots;
+        this.pendingTypes = pendingTypes;
+        this.typeManager = typeManager;
+    }
+
+    /**
+     * Retrieves the number of this generation. Later generations have higher numbers.
+     *
+     * @return The generation number.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retrieves the configuration types of this generation.
+     *
+     * @return An unmodifiable set of the configuration types.
+     */
+    public Set<String> getConfigTypes() {
+        return Collections.unmodifiableSet(snapshots.keySet());
+    }
+
+    /**
+     * Retrieves a read-only manager of the entries of a type in this generation.
+     * A type that is loaded lazily and was not used before this generation was acquired
+     * is loaded now if no one did since, and the entries it was first loaded with are
+     * returned, even if the type has been reloaded since.
+     *
+     * @param type The configuration type.
+     * @return The entries of the type, or null if the type has no entries.
+     */
+    public IConfigManager getManager(String type) {
+        return getSnapshot(type);
+    }
+
+    /**
+     * Retrieves the snapshot of a type in this generation, loading a pending type as
+     * {@link #getManager(String)} does.
+     */
+    HoconConfigManager.Snapshot getSnapshot(String type) {
+        HoconConfigManager.Snapshot snapshot = snapshots.get(type);
+        if (snapshot == null && pendingTypes.contains(type))
+            snapshot = typeManager.getLoadedSnapshot(type);
+        return snapshot;
+    }
+
+    /**
+     * Retrieves the configuration resolved for the given IConfigurable object from the entries
+     * of a type in this generation. Resolved configurations are cached as by the manager.
+     *
+     * @param type         The configuration type.
+     * @param configurable An object containing configuration identifiers (ID or modifier).
+     * @return The resolved configuration, or null if not found.
+     */
+    public IConfig getConfig(String type, IConfigurable configurable) {
+        IConfigManager manager = getManager(type);
+        return manager == null ? null : manager.getConfig(configurable);
+    }
+}
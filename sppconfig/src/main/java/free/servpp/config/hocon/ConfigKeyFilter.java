@@ -0,0 +1,81 @@
+package free.servpp.config.hocon;
+
+import java.util.Set;
+
+/**
+ * The ConfigKeyFilter class answers whether an ID or modifier may have an entry of its own
+ * in a snapshot of a HoconConfigManager. A Bloom filter over the keys of the entries rules
+ * out most absent keys with a few bit reads, and a small negative cache catches the absent
+ * keys the filter lets through, once they were looked up.
+ *
+ * A filter is built for a fixed set of keys and never changes afterwards, except for its
+ * negative cache. The manager builds new filters with every snapshot.
+ */
+final class ConfigKeyFilter {
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 3;
+    private static final int ABSENT_SLOTS = 64;
+
+    private final long[] bits;
+    private final int mask;
+    // Keys known to be absent although the filter matches them, in slots picked by their hash.
+    // A slot may be overwritten by another key at any time; Strings are safe to publish racily.
+    private final String[] absent;
+
+    /**
+     * Builds a filter for the given keys.
+     *
+     * @param keys The keys that have an entry.
+     */
+    ConfigKeyFilter(Set<String> keys) {
+        int size = Math.max(64, Integer.highestOneBit(Math.max(1, keys.size() * BITS_PER_KEY - 1)) << 1);
+        bits = new long[size >>> 6];
+        mask = size - 1;
+        absent = keys.isEmpty() ? null : new String[ABSENT_SLOTS];
+        for (String key : keys) {
+            if (key == null)
+                continue;
+            int h = mix(key.hashCode());
+            int step = (h >>> 17) | 1;
+            for (int i = 0; i < HASHES; i++, h += step) {
+                int bit = h & mask;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a key may have an entry. A false answer is definite.
+     *
+     * @param key The ID or modifier, not null.
+     * @return false if the key is known to have no entry.
+     */
+    boolean mightContain(String key) {
+        if (absent == null)
+            return false;
+        int hash = key.hashCode();
+        int h = mix(hash);
+        int step = (h >>> 17) | 1;
+        for (int i = 0; i < HASHES; i++, h += step) {
+            int bit = h & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0)
+                return false;
+        }
+        return !key.equals(absent[hash & (ABSENT_SLOTS - 1)]);
+    }
+
+    /**
+     * Remembers that a key the filter matches has no entry.
+     *
+     * @param key The ID or modifier, not null.
+     */
+    void markAbsent(String key) {
+        if (absent != null)
+            absent[key.hashCode() & (ABSENT_SLOTS - 1)] = key;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
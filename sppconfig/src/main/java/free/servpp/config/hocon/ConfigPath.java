@@ -0,0 +1,253 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ConfigPath class is a configuration path compiled once into a reusable handle.
+ * The path string is split into its keys when the handle is compiled. Resolving a handle
+ * against a HoconConfigImpl walks the keys from the root once and caches the value in a
+ * small table of that configuration keyed by the handle, so later reads are a hashed
+ * array read without path parsing or intermediate allocation. The table of a configuration
+ * only grows with the handles read from it.
+ *
+ * Handles only apply to HoconConfigImpl. A MappedConfig or FlatConfig has no tree to walk;
+ * the index of a path resolved once with its own {@code indexOf} serves the same purpose there.
+ *
+ * Handles are meant to be compiled once and kept in constants:
+ * <pre>
+ * private static final ConfigPath HEADER = ConfigPath.compile("service.header");
+ * ...
+ * String header = HEADER.getString(config);
+ * </pre>
+ */
+public final class ConfigPath {
+    // Spreads the hashes of consecutive handles over the tables, as ThreadLocal does.
+    private static final int HASH_INCREMENT = 0x61c88647;
+    private static final AtomicInteger NEXT_HASH = new AtomicInteger();
+
+    // Cached for paths without a value, so that misses are cached as well.
+    private static final Object MISSING = new Object();
+    // Cached for paths set to null.
+    private static final Object NULL = new Object();
+
+    private final String path;
+    private final String[] keys;
+    // The hash of this handle in the value tables of configurations.
+    final int hash;
+
+    private ConfigPath(String path, String[] keys, int hash) {
+        this.path = path;
+        this.keys = keys;
+        this.hash = hash;
+    }
+
+    /**
+     * Compiles a path expression, such as {@code service.serviceId}, into a handle.
+     *
+     * @param path the path expression
+     * @return the compiled handle
+     * @throws ConfigException.BadPath if the path expression is invalid
+     */
+    public static ConfigPath compile(String path) {
+        List<String> keys = ConfigUtil.splitPath(path);
+        return new ConfigPath(path, keys.toArray(new String[0]), NEXT_HASH.getAndAdd(HASH_INCREMENT));
+    }
+
+    /**
+     * Returns the path expression of this handle.
+     *
+     * @return the path expression
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns whether the configuration has a non-null value at this path.
+     *
+     * @param config the configuration
+     * @return true if there is a value
+     */
+    public boolean hasPath(HoconConfigImpl config) {
+        Object value = resolve(config);
+        return value != MISSING && value != NULL;
+    }
+
+    /**
+     * Returns the string value at this path; numbers and booleans are converted.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     * @throws ConfigException.WrongType if the value is a list or an object
+     */
+    public String getString(HoconConfigImpl config) {
+        Object value = require(config);
+        if (value instanceof String)
+            return (String) value;
+        if (value instanceof Number || value instanceof Boolean)
+            return String.valueOf(value);
+        throw wrongType(value, "STRING");
+    }
+
+    /**
+     * Returns the int value at this path.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     * @throws ConfigException.WrongType if the value is not an integer within the range of an int
+     */
+    public int getInt(HoconConfigImpl config) {
+        Object value = require(config);
+        long longValue = toLong(value);
+        if (longValue != (int) longValue)
+            throw wrongType(value, "32-bit integer");
+        return (int) longValue;
+    }
+
+    /**
+     * Returns the long value at this path.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     * @throws ConfigException.WrongType if the value is not an integer
+     */
+    public long getLong(HoconConfigImpl config) {
+        return toLong(require(config));
+    }
+
+    /**
+     * Returns the double value at this path.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     */
+    public double getDouble(HoconConfigImpl config) {
+        return requireNumber(config).doubleValue();
+    }
+
+    /**
+     * Returns the boolean value at this path.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     */
+    public boolean getBoolean(HoconConfigImpl config) {
+        Object value = require(config);
+        if (value instanceof Boolean)
+            return (Boolean) value;
+        throw wrongType(value, "BOOLEAN");
+    }
+
+    /**
+     * Returns the unwrapped list at this path.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     */
+    public List<?> getList(HoconConfigImpl config) {
+        Object value = require(config);
+        if (value instanceof List)
+            return (List<?>) value;
+        throw wrongType(value, "LIST");
+    }
+
+    /**
+     * Returns the object at this path as a Config.
+     *
+     * @param config the configuration to read from
+     * @return the value
+     * @throws ConfigException.Missing if there is no value at this path
+     */
+    public Config getConfig(HoconConfigImpl config) {
+        Object value = require(config);
+        if (value instanceof Config)
+            return (Config) value;
+        throw wrongType(value, "OBJECT");
+    }
+
+    /**
+     * Converts a number without a fractional part to a long, like MappedConfig.getLong.
+     */
+    private long toLong(Object value) {
+        if (value instanceof Integer || value instanceof Long)
+            return ((Number) value).longValue();
+        if (value instanceof Number) {
+            double doubleValue = ((Number) value).doubleValue();
+            if ((long) doubleValue == doubleValue)
+                return (long) doubleValue;
+        }
+        throw wrongType(value, "NUMBER");
+    }
+
+    private Number requireNumber(HoconConfigImpl config) {
+        Object value = require(config);
+        if (value instanceof Number)
+            return (Number) value;
+        throw wrongType(value, "NUMBER");
+    }
+
+    private Object require(HoconConfigImpl config) {
+        Object value = resolve(config);
+        if (value == MISSING)
+            throw new ConfigException.Missing(path);
+        if (value == NULL)
+            throw new ConfigException.Null(null, path, null);
+        return value;
+    }
+
+    /**
+     * Returns the cached value of this path in the configuration, walking the keys and caching
+     * the value on the first read.
+     */
+    private Object resolve(HoconConfigImpl config) {
+        Object value = config.getPathValue(this);
+        if (value == null) {
+            Config resolved = config.getConfigObject();
+            value = walk(resolved.root());
+            config.setPathValue(this, resolved, value);
+        }
+        return value;
+    }
+
+    private Object walk(ConfigObject root) {
+        ConfigValue value = root;
+        for (String key : keys) {
+            if (value.valueType() != ConfigValueType.OBJECT)
+                throw new ConfigException.WrongType(value.origin(), path + " has a non-object value on the way to " + key);
+            value = ((ConfigObject) value).get(key);
+            if (value == null)
+                return MISSING;
+        }
+        switch (value.valueType()) {
+            case NULL:
+                return NULL;
+            case OBJECT:
+                return ((ConfigObject) value).toConfig();
+            default:
+                return value.unwrapped();
+        }
+    }
+
+    private ConfigException wrongType(Object value, String expected) {
+        return new ConfigException.WrongType(null, path + " has a " + value.getClass().getSimpleName() + " value rather than " + expected);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigPath(" + path + ")";
+    }
+}
@@ -0,0 +1,53 @@
+package free.servpp.config.hocon;
+
+/**
+ * The ConfigTypeHandle class is the interned form of a configuration type name, obtained
+ * from {@link HoconConfigTypeManager#getTypeHandle(String)}. A caller that resolves the
+ * handle of a type once finds the manager of the type with a plain array read, without
+ * hashing the type name.
+ *
+ * A handle is only valid for the type manager that issued it.
+ */
+public final class ConfigTypeHandle {
+    private final ConfigTypeRegistry registry;
+    private final String type;
+    private final int index;
+
+    ConfigTypeHandle(ConfigTypeRegistry registry, String type, int index) {
+        this.registry = registry;
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Returns the registry that issued this handle.
+     *
+     * @return The issuing registry.
+     */
+    ConfigTypeRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Returns the configuration type of this handle.
+     *
+     * @return The configuration type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the slot of this handle in the registry.
+     *
+     * @return The index of the slot.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + index;
+    }
+}
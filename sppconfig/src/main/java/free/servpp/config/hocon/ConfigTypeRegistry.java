@@ -0,0 +1,150 @@
+package free.servpp.config.hocon;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The ConfigTypeRegistry class interns configuration type names to small integer handles
+ * and keeps the manager of every type in a slot indexed by its handle.
+ *
+ * The slots are held in chunks that are allocated on demand below a fixed directory, so
+ * that the slot of a handle never moves: reading a manager is two array reads, and
+ * registering a type or installing a manager is a compare-and-set. No operation takes a lock.
+ * Types are never unregistered, and at most 4096 chunks of 64 slots, 262144 types, can be
+ * registered.
+ */
+final class ConfigTypeRegistry {
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 4096;
+
+    // The handles issued so far, keyed by their type.
+    private final ConcurrentMap<String, ConfigTypeHandle> handles = new ConcurrentHashMap<>();
+    // The index of the next handle; an index lost in a race to register a type is left unused.
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    // The chunks of manager slots, allocated on first use.
+    private final AtomicReferenceArray<AtomicReferenceArray<HoconConfigManager>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    /**
+     * Returns the handle of a type, registering the type if it has none yet.
+     *
+     * @param type The configuration type.
+     * @return The handle of the type.
+     * @throws IllegalStateException if the type is new and the registry is full.
+     */
+    ConfigTypeHandle handleOf(String type) {
+        ConfigTypeHandle handle = handles.get(type);
+        if (handle != null)
+            return handle;
+        int index = nextIndex.getAndIncrement();
+        if (index >= MAX_CHUNKS * CHUNK_SIZE)
+            throw new IllegalStateException("Too many configuration types: " + type);
+        handle = new ConfigTypeHandle(this, type, index);
+        ConfigTypeHandle existing = handles.putIfAbsent(type, handle);
+        return existing != null ? existing : handle;
+    }
+
+    /**
+     * Returns the handle of a type without registering it.
+     *
+     * @param type The configuration type.
+     * @return The handle of the type, or null if the type is not registered.
+     */
+    ConfigTypeHandle findHandle(String type) {
+        return handles.get(type);
+    }
+
+    /**
+     * Returns the manager installed for a handle.
+     *
+     * @param handle A handle issued by this registry.
+     * @return The manager, or null if none is installed.
+     */
+    HoconConfigManager get(ConfigTypeHandle handle) {
+        int index = handle.getIndex();
+        AtomicReferenceArray<HoconConfigManager> chunk = chunks.get(index >>> CHUNK_BITS);
+        return chunk == null ? null : chunk.get(index & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the manager installed for a type.
+     *
+     * @param type The configuration type.
+     * @return The manager, or null if none is installed.
+     */
+    HoconConfigManager get(String type) {
+        ConfigTypeHandle handle = handles.get(type);
+        return handle == null ? null : get(handle);
+    }
+
+    /**
+     * Installs a manager for a handle if the slot holds the expected manager.
+     *
+     * @param handle   A handle issued by this registry.
+     * @param expected The manager expected in the slot, or null for an empty slot.
+     * @param manager  The manager to install.
+     * @return true if the manager was installed.
+     */
+    boolean compareAndSet(ConfigTypeHandle handle, HoconConfigManager expected, HoconConfigManager manager) {
+        int index = handle.getIndex();
+        return chunkOf(index).compareAndSet(index & CHUNK_MASK, expected, manager);
+    }
+
+    /**
+     * Installs a manager for a handle unconditionally.
+     *
+     * @param handle  A handle issued by this registry.
+     * @param manager The manager to install.
+     * @return The manager that was installed before, or null if the slot was empty.
+     */
+    HoconConfigManager getAndSet(ConfigTypeHandle handle, HoconConfigManager manager) {
+        int index = handle.getIndex();
+        return chunkOf(index).getAndSet(index & CHUNK_MASK, manager);
+    }
+
+    private AtomicReferenceArray<HoconConfigManager> chunkOf(int index) {
+        int chunkIndex = index >>> CHUNK_BITS;
+        AtomicReferenceArray<HoconConfigManager> chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(chunkIndex);
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the installed managers.
+     *
+     * @return A new list of the installed managers.
+     */
+    List<HoconConfigManager> getManagers() {
+        List<HoconConfigManager> managers = new ArrayList<>();
+        for (ConfigTypeHandle handle : handles.values()) {
+            HoconConfigManager manager = get(handle);
+            if (manager != null)
+                managers.add(manager);
+        }
+        return managers;
+    }
+
+    /**
+     * Returns the types that have a manager installed.
+     *
+     * @return A new set of the types.
+     */
+    Set<String> getTypes() {
+        Set<String> types = new HashSet<>();
+        for (ConfigTypeHandle handle : handles.values()) {
+            if (get(handle) != null)
+                types.add(handle.getType());
+        }
+        return types;
+    }
+}
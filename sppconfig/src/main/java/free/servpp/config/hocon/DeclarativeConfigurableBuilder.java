@@ -0,0 +1,203 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import com.typesafe.config.ConfigValueType;
+import free.servpp.config.IConfigurable;
+import free.servpp.config.IConfigurableForLoad;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The DeclarativeConfigurableBuilder class is an IConfigurableBuilder driven by declarations
+ * instead of code. For every type, the paths of its ID and modifier are declared, relative to
+ * the root of the type:
+ * <pre>
+ * new DeclarativeConfigurableBuilder()
+ *         .declare("service", "serviceId", "modifier")
+ *         .declare("route", "routeId", null);
+ * </pre>
+ * Building reads each declared path once, using hasPath and the value type to tell an absent
+ * value, a single value and a list apart, so that no exception is thrown for an entry without
+ * an ID or modifier. The configurations of expanded IDs and modifiers are created directly as
+ * configurations holding the single value, without parsing HOCON text.
+ */
+public class DeclarativeConfigurableBuilder implements IConfigurableBuilder {
+    // The declared paths of each type, relative to the root of the type.
+    private final Map<String, Declaration> declarations = new ConcurrentHashMap<>();
+    // The paths of undeclared types, or null if those types are not built.
+    private volatile Declaration defaultDeclaration;
+    // The full paths of each type built so far.
+    private final Map<String, Declaration> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Declares the paths of the ID and modifier of a type.
+     *
+     * @param type         The configuration type.
+     * @param idPath       The path of the ID below the root of the type, or null if the type has no IDs.
+     * @param modifierPath The path of the modifier below the root of the type, or null if the type has no modifiers.
+     * @return The current instance of DeclarativeConfigurableBuilder for method chaining.
+     * @throws RuntimeException if the type is already declared.
+     */
+    public DeclarativeConfigurableBuilder declare(String type, String idPath, String modifierPath) {
+        if (declarations.putIfAbsent(type, new Declaration(idPath, modifierPath)) != null)
+            throw new RuntimeException("Duplicate declaration of type " + type);
+        resolved.remove(type);
+        return this;
+    }
+
+    /**
+     * Declares the paths of the ID and modifier of every type that is not declared itself.
+     * Without a default declaration, configurations of undeclared types are not built and
+     * are left out by the loader.
+     *
+     * @param idPath       The path of the ID below the root of a type, or null if types have no IDs.
+     * @param modifierPath The path of the modifier below the root of a type, or null if types have no modifiers.
+     * @return The current instance of DeclarativeConfigurableBuilder for method chaining.
+     */
+    public DeclarativeConfigurableBuilder declareDefault(String idPath, String modifierPath) {
+        defaultDeclaration = new Declaration(idPath, modifierPath);
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * Builds the configurable of a configuration of a declared type.
+     *
+     * @param type The type of configuration being built.
+     * @param config The Config object containing the configuration data.
+     * @return The configurable, or null if the type is not declared.
+     * @throws ConfigException.WrongType if a declared path holds an object.
+     */
+    @Override
+    public IConfigurable build(String type, Config config) {
+        Declaration declaration = resolved.get(type);
+        if (declaration == null) {
+            Declaration declared = declarations.getOrDefault(type, defaultDeclaration);
+            if (declared == null)
+                return null;
+            String root = ConfigUtil.joinPath(type);
+            declaration = new Declaration(declared.idPath == null ? null : root + "." + declared.idPath,
+                    declared.modifierPath == null ? null : root + "." + declared.modifierPath);
+            resolved.put(type, declaration);
+        }
+        return new DeclaredConfigurable(type, config, declaration);
+    }
+
+    /**
+     * Returns the class name together with every declaration, so that a compiled configuration
+     * file is rebuilt when the declarations change.
+     *
+     * @return The fingerprint of the builder and its declarations.
+     */
+    @Override
+    public String getFingerprint() {
+        StringBuilder fingerprint = new StringBuilder(getClass().getName());
+        new TreeMap<>(declarations).forEach((type, declaration) ->
+                fingerprint.append('\n').append(type).append('=').append(declaration));
+        Declaration declared = defaultDeclaration;
+        if (declared != null)
+            fingerprint.append("\n*=").append(declared);
+        return fingerprint.toString();
+    }
+
+    /**
+     * The paths of the ID and modifier of a type.
+     */
+    private static final class Declaration {
+        private final String idPath;
+        private final String modifierPath;
+
+        private Declaration(String idPath, String modifierPath) {
+            this.idPath = idPath;
+            this.modifierPath = modifierPath;
+        }
+
+        @Override
+        public String toString() {
+            return (idPath == null ? "-" : ConfigUtil.quoteString(idPath)) + ","
+                    + (modifierPath == null ? "-" : ConfigUtil.quoteString(modifierPath));
+        }
+    }
+
+    /**
+     * A configurable whose IDs and modifiers are read once, when it is built.
+     */
+    private static final class DeclaredConfigurable implements IConfigurableForLoad {
+        private final String type;
+        private final Declaration declaration;
+        private final String id;
+        private final List<String> ids;
+        private final String modifier;
+        private final List<String> modifiers;
+
+        private DeclaredConfigurable(String type, Config config, Declaration declaration) {
+            this.type = type;
+            this.declaration = declaration;
+            ConfigValue idValue = getValue(config, declaration.idPath);
+            ConfigValue modifierValue = getValue(config, declaration.modifierPath);
+            this.ids = getList(config, declaration.idPath, idValue);
+            this.id = ids == null ? getScalar(config, declaration.idPath, idValue) : null;
+            this.modifiers = getList(config, declaration.modifierPath, modifierValue);
+            this.modifier = modifiers == null ? getScalar(config, declaration.modifierPath, modifierValue) : null;
+        }
+
+        private static ConfigValue getValue(Config config, String path) {
+            return path != null && config.hasPath(path) ? config.getValue(path) : null;
+        }
+
+        private static List<String> getList(Config config, String path, ConfigValue value) {
+            return value != null && value.valueType() == ConfigValueType.LIST ? config.getStringList(path) : null;
+        }
+
+        private static String getScalar(Config config, String path, ConfigValue value) {
+            if (value == null)
+                return null;
+            if (value.valueType() == ConfigValueType.OBJECT)
+                throw new ConfigException.WrongType(value.origin(), path + " has type OBJECT rather than STRING or LIST");
+            return config.getString(path);
+        }
+
+        @Override
+        public String getConfigId() {
+            return id;
+        }
+
+        @Override
+        public String getModifier() {
+            return modifier;
+        }
+
+        @Override
+        public List<String> getConfigIdList() {
+            return ids;
+        }
+
+        @Override
+        public List<String> getModifierList() {
+            return modifiers;
+        }
+
+        @Override
+        public String getConfigType() {
+            return type;
+        }
+
+        @Override
+        public Config createConfigById(String id) {
+            return ConfigFactory.empty().withValue(declaration.idPath, ConfigValueFactory.fromAnyRef(id));
+        }
+
+        @Override
+        public Config createConfigByModifier(String modifier) {
+            return ConfigFactory.empty().withValue(declaration.modifierPath, ConfigValueFactory.fromAnyRef(modifier));
+        }
+    }
+}
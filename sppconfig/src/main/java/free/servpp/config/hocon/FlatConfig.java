@@ -0,0 +1,474 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The FlatConfig class is an immutable, flattened form of a configuration tree. Every leaf
+ * value is stored under its full path in a sorted path array; numbers and booleans sit in
+ * primitive columns, strings are interned and lists are kept as unmodifiable lists.
+ * A null value is kept as a tombstone leaf: it is not a value of its own, but it hides
+ * the values of a fallback at and below its path, as in {@link Config#withFallback}.
+ *
+ * A value is found by a binary search over the paths, or, for callers that resolved the
+ * index of a path once with {@link #indexOf(String)}, by a plain array read. Reads of
+ * primitives do not box and do not allocate.
+ */
+public final class FlatConfig {
+    static final byte LONG = 0;
+    static final byte DOUBLE = 1;
+    static final byte BOOLEAN = 2;
+    static final byte STRING = 3;
+    static final byte LIST = 4;
+    static final byte NULL = 5;
+
+    private final String[] paths;
+    private final byte[] kinds;
+    // The value of LONG and BOOLEAN (1 or 0) leaves, and the integral value of DOUBLE leaves.
+    private final long[] longs;
+    // The value of DOUBLE leaves, and the value of LONG leaves as a double.
+    private final double[] doubles;
+    // The value of STRING and LIST leaves.
+    private final Object[] refs;
+
+    private FlatConfig(String[] paths, byte[] kinds, long[] longs, double[] doubles, Object[] refs) {
+        this.paths = paths;
+        this.kinds = kinds;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.refs = refs;
+    }
+
+    /**
+     * Flattens a HOCON configuration. Unlike {@link Config#entrySet()}, null values are kept
+     * as tombstones, so that they still hide the values of a fallback.
+     *
+     * @param config the configuration to flatten
+     * @return the flattened configuration
+     */
+    public static FlatConfig of(Config config) {
+        List<Map.Entry<String, ConfigValue>> entries = new ArrayList<>();
+        collectLeaves(config.root(), "", entries);
+        entries.sort(Map.Entry.comparingByKey());
+        int size = entries.size();
+        String[] paths = new String[size];
+        byte[] kinds = new byte[size];
+        long[] longs = new long[size];
+        double[] doubles = new double[size];
+        Object[] refs = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Map.Entry<String, ConfigValue> entry = entries.get(i);
+            paths[i] = entry.getKey().intern();
+            Object value = entry.getValue().unwrapped();
+            switch (entry.getValue().valueType()) {
+                case NUMBER:
+                    Number number = (Number) value;
+                    if (value instanceof Integer || value instanceof Long) {
+                        kinds[i] = LONG;
+                    } else {
+                        kinds[i] = DOUBLE;
+                    }
+                    longs[i] = number.longValue();
+                    doubles[i] = number.doubleValue();
+                    break;
+                case BOOLEAN:
+                    kinds[i] = BOOLEAN;
+                    longs[i] = (Boolean) value ? 1 : 0;
+                    break;
+                case STRING:
+                    kinds[i] = STRING;
+                    refs[i] = ((String) value).intern();
+                    break;
+                case LIST:
+                    kinds[i] = LIST;
+                    refs[i] = Collections.unmodifiableList((List<?>) value);
+                    break;
+                case NULL:
+                    kinds[i] = NULL;
+                    break;
+                default:
+                    throw new ConfigException.WrongType(entry.getValue().origin(),
+                            "Cannot flatten " + entry.getKey() + " of type " + entry.getValue().valueType());
+            }
+        }
+        return new FlatConfig(paths, kinds, longs, doubles, refs);
+    }
+
+    /**
+     * Adds the leaves of an object, including null ones, under their full paths.
+     */
+    private static void collectLeaves(ConfigObject object, String prefix, List<Map.Entry<String, ConfigValue>> leaves) {
+        for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+            String path = prefix + ConfigUtil.joinPath(entry.getKey());
+            ConfigValue value = entry.getValue();
+            if (value.valueType() == ConfigValueType.OBJECT)
+                collectLeaves((ConfigObject) value, path + ".", leaves);
+            else
+                leaves.add(new AbstractMap.SimpleImmutableEntry<>(path, value));
+        }
+    }
+
+    /**
+     * Merges this configuration with a fallback, with the semantics of {@link Config#withFallback}:
+     * a path of this configuration hides the same path of the fallback, every path below it,
+     * and every shorter path it lies below. A tombstone hides the same way and is kept in
+     * the result, so that it also hides the values of further fallbacks.
+     *
+     * @param fallback the configuration providing values missing here
+     * @return the merged configuration
+     */
+    public FlatConfig withFallback(FlatConfig fallback) {
+        Set<String> prefixes = new HashSet<>();
+        for (String path : paths) {
+            addPrefixes(path, prefixes);
+        }
+        int size = paths.length + fallback.paths.length;
+        String[] mergedPaths = new String[size];
+        byte[] mergedKinds = new byte[size];
+        long[] mergedLongs = new long[size];
+        double[] mergedDoubles = new double[size];
+        Object[] mergedRefs = new Object[size];
+        int i = 0, j = 0, n = 0;
+        while (i < paths.length || j < fallback.paths.length) {
+            int cmp = i == paths.length ? 1 : j == fallback.paths.length ? -1 : paths[i].compareTo(fallback.paths[j]);
+            FlatConfig from;
+            int index;
+            if (cmp <= 0) {
+                from = this;
+                index = i++;
+                if (cmp == 0)
+                    j++;
+            } else {
+                index = j++;
+                if (isHidden(fallback.paths[index], prefixes))
+                    continue;
+                from = fallback;
+            }
+            mergedPaths[n] = from.paths[index];
+            mergedKinds[n] = from.kinds[index];
+            mergedLongs[n] = from.longs[index];
+            mergedDoubles[n] = from.doubles[index];
+            mergedRefs[n] = from.refs[index];
+            n++;
+        }
+        return new FlatConfig(Arrays.copyOf(mergedPaths, n), Arrays.copyOf(mergedKinds, n),
+                Arrays.copyOf(mergedLongs, n), Arrays.copyOf(mergedDoubles, n), Arrays.copyOf(mergedRefs, n));
+    }
+
+    /**
+     * Returns whether a fallback path is hidden by this configuration, either because it lies
+     * below a leaf of this configuration or because an object of this configuration lies below it.
+     */
+    private boolean isHidden(String path, Set<String> prefixes) {
+        if (prefixes.contains(path))
+            return true;
+        int end = path.length();
+        while ((end = lastSeparator(path, end)) > 0) {
+            if (indexOf(path.substring(0, end)) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static void addPrefixes(String path, Set<String> prefixes) {
+        int end = path.length();
+        while ((end = lastSeparator(path, end)) > 0) {
+            prefixes.add(path.substring(0, end));
+        }
+    }
+
+    /**
+     * Returns the index of the last path separator before the given end, skipping dots in quoted keys.
+     */
+    private static int lastSeparator(String path, int end) {
+        boolean quoted = false;
+        int separator = -1;
+        for (int i = 0; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '"' && (i == 0 || path.charAt(i - 1) != '\\'))
+                quoted = !quoted;
+            else if (c == '.' && !quoted)
+                separator = i;
+        }
+        return separator;
+    }
+
+    /**
+     * Returns the number of leaves, including tombstones.
+     *
+     * @return the number of leaves
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * Returns the index of a leaf path, to be used with the index-based getters.
+     *
+     * @param path the full path of a leaf
+     * @return the index of the path, or a negative value if there is no such leaf
+     */
+    public int indexOf(String path) {
+        return Arrays.binarySearch(paths, path);
+    }
+
+    /**
+     * Returns the path of the leaf at an index.
+     *
+     * @param index the index of the leaf
+     * @return the full path of the leaf
+     */
+    public String getPath(int index) {
+        return paths[index];
+    }
+
+    /**
+     * Returns the kind of the leaf at an index, one of LONG, DOUBLE, BOOLEAN, STRING, LIST and NULL.
+     *
+     * @param index the index of the leaf
+     * @return the kind of the leaf
+     */
+    byte getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Returns whether there is a value at the path, either a leaf or an object containing leaves.
+     * A path holding a tombstone has no value.
+     *
+     * @param path the path
+     * @return true if there is a value at the path
+     */
+    public boolean hasPath(String path) {
+        int index = indexOf(path);
+        if (index >= 0)
+            return kinds[index] != NULL;
+        // The first path not below "path." is at the insertion point of "path."
+        String prefix = path + ".";
+        int insertion = -Arrays.binarySearch(paths, prefix) - 1;
+        return insertion < paths.length && paths[insertion].startsWith(prefix);
+    }
+
+    /**
+     * Returns the long value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public long getLong(String path) {
+        return getLong(require(path));
+    }
+
+    /**
+     * Returns the int value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public int getInt(String path) {
+        return getInt(require(path));
+    }
+
+    /**
+     * Returns the double value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public double getDouble(String path) {
+        return getDouble(require(path));
+    }
+
+    /**
+     * Returns the boolean value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public boolean getBoolean(String path) {
+        return getBoolean(require(path));
+    }
+
+    /**
+     * Returns the string value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public String getString(String path) {
+        return getString(require(path));
+    }
+
+    /**
+     * Returns the list value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public List<?> getList(String path) {
+        return getList(require(path));
+    }
+
+    /**
+     * Returns the long value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public long getLong(int index) {
+        byte kind = kinds[index];
+        if (kind == LONG || (kind == DOUBLE && longs[index] == doubles[index]))
+            return longs[index];
+        throw wrongType(index, "NUMBER");
+    }
+
+    /**
+     * Returns the int value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value != (int) value)
+            throw wrongType(index, "32-bit integer");
+        return (int) value;
+    }
+
+    /**
+     * Returns the double value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public double getDouble(int index) {
+        byte kind = kinds[index];
+        if (kind == LONG || kind == DOUBLE)
+            return doubles[index];
+        throw wrongType(index, "NUMBER");
+    }
+
+    /**
+     * Returns the boolean value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public boolean getBoolean(int index) {
+        if (kinds[index] == BOOLEAN)
+            return longs[index] != 0;
+        throw wrongType(index, "BOOLEAN");
+    }
+
+    /**
+     * Returns the string value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public String getString(int index) {
+        switch (kinds[index]) {
+            case STRING:
+                return (String) refs[index];
+            case LONG:
+                return Long.toString(longs[index]);
+            case DOUBLE:
+                return Double.toString(doubles[index]);
+            case BOOLEAN:
+                return Boolean.toString(longs[index] != 0);
+            default:
+                throw wrongType(index, "STRING");
+        }
+    }
+
+    /**
+     * Returns the list value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public List<?> getList(int index) {
+        if (kinds[index] == LIST)
+            return (List<?>) refs[index];
+        throw wrongType(index, "LIST");
+    }
+
+    /**
+     * Rebuilds a HOCON configuration from the leaves, for callers that need a Typesafe Config
+     * tree. Tombstones become null values.
+     *
+     * @return the configuration as a HOCON configuration
+     */
+    public Config toConfig() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < paths.length; i++) {
+            values.put(paths[i], valueOf(i));
+        }
+        return ConfigFactory.parseMap(values, "flat config");
+    }
+
+    private Object valueOf(int index) {
+        switch (kinds[index]) {
+            case LONG:
+                return longs[index];
+            case DOUBLE:
+                return doubles[index];
+            case BOOLEAN:
+                return longs[index] != 0;
+            case NULL:
+                return null;
+            default:
+                return refs[index];
+        }
+    }
+
+    private int require(String path) {
+        int index = indexOf(path);
+        if (index < 0)
+            throw new ConfigException.Missing(path);
+        return index;
+    }
+
+    private ConfigException wrongType(int index, String expected) {
+        if (kinds[index] == NULL)
+            return new ConfigException.Null(null, paths[index], expected);
+        return new ConfigException.WrongType(null, paths[index] + " has type " + kindName(kinds[index]) + " rather than " + expected);
+    }
+
+    private static String kindName(byte kind) {
+        switch (kind) {
+            case LONG:
+            case DOUBLE:
+                return "NUMBER";
+            case BOOLEAN:
+                return "BOOLEAN";
+            case STRING:
+                return "STRING";
+            case NULL:
+                return "NULL";
+            default:
+                return "LIST";
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.IConfig;
+
+/**
+ * The FlatConfigImpl class is an implementation of the IConfig interface backed by a
+ * FlatConfig instead of a Typesafe Config tree. It supports the same fallback semantics
+ * as HoconConfigImpl, while reads of primitives are array reads without boxing.
+ *
+ * A resolved HoconConfigImpl can be turned into a FlatConfigImpl with {@link #of(IConfig)}.
+ */
+public class FlatConfigImpl implements IConfig<FlatConfig> {
+    private volatile boolean merged;
+    private volatile FlatConfig config;
+
+    /**
+     * Constructs a new FlatConfigImpl with the provided flattened configuration.
+     *
+     * @param config The flattened configuration to be managed by this instance.
+     */
+    public FlatConfigImpl(FlatConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Creates a FlatConfigImpl holding the values of the given configuration, flattening it
+     * if it is a HOCON or mapped configuration. The merged status is carried over.
+     *
+     * @param conf The configuration to flatten.
+     * @return The flattened configuration.
+     */
+    public static FlatConfigImpl of(IConfig conf) {
+        FlatConfigImpl ret = new FlatConfigImpl(flatten(conf));
+        ret.setMerged(conf.isMerged());
+        return ret;
+    }
+
+    private static FlatConfig flatten(IConfig conf) {
+        Object object = conf.getConfigObject();
+        if (object instanceof FlatConfig)
+            return (FlatConfig) object;
+        return FlatConfig.of(HoconConfigImpl.toConfig(conf));
+    }
+
+    @Override
+    public boolean isMerged() {
+        return merged;
+    }
+
+    /**
+     * Merges the current configuration with another configuration, which may be flat, HOCON or mapped.
+     * Values of the current configuration take precedence, as with HOCON's withFallback.
+     *
+     * @param conf The configuration to merge with the current configuration.
+     */
+    @Override
+    public void mergeSuper(IConfig conf) {
+        this.config = config.withFallback(flatten(conf));
+    }
+
+    @Override
+    public void setMerged(boolean b) {
+        merged = b;
+    }
+
+    @Override
+    public FlatConfig getConfigObject() {
+        return config;
+    }
+
+    @Override
+    public FlatConfigImpl copy() {
+        return new FlatConfigImpl(config);
+    }
+}
@@ -0,0 +1,108 @@
+package free.servpp.config.hocon;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The HoconConfigEvents class holds the Java Flight Recorder events emitted while loading
+ * HOCON configurations, one per phase: the whole load, the directory walk, the parse of
+ * every file, the grouping by root key, the classification of every type and the
+ * registration of every type with its manager. The events cost nothing unless a
+ * recording enables them, so they can stay on in production.
+ */
+final class HoconConfigEvents {
+    private HoconConfigEvents() {
+    }
+
+    @Name("free.servpp.config.Load")
+    @Label("Config Load")
+    @Category({"SPP Config", "Load"})
+    @Description("Load of all configurations of a resource directory or file")
+    static final class LoadEvent extends Event {
+        @Label("Source")
+        String source;
+
+        @Label("Files")
+        int files;
+
+        @Label("Types")
+        int types;
+
+        @Label("From Compiled File")
+        boolean compiled;
+    }
+
+    @Name("free.servpp.config.Walk")
+    @Label("Config Directory Walk")
+    @Category({"SPP Config", "Load"})
+    @Description("Walk of a directory tree collecting configuration files")
+    static final class WalkEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Files")
+        int files;
+    }
+
+    @Name("free.servpp.config.Parse")
+    @Label("Config Parse")
+    @Category({"SPP Config", "Load"})
+    @Description("Parse of a single configuration file or archive entry")
+    static final class ParseEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Roots")
+        int roots;
+    }
+
+    @Name("free.servpp.config.Group")
+    @Label("Config Group By Root")
+    @Category({"SPP Config", "Load"})
+    @Description("Grouping of parsed configurations by their root key")
+    static final class GroupEvent extends Event {
+        @Label("Configurations")
+        int configs;
+
+        @Label("Types")
+        int types;
+    }
+
+    @Name("free.servpp.config.Classify")
+    @Label("Config Classify")
+    @Category({"SPP Config", "Load"})
+    @Description("Classification of the configurations of one type by ID and modifier")
+    static final class ClassifyEvent extends Event {
+        @Label("Type")
+        String configType;
+
+        @Label("Configurations")
+        int configs;
+
+        @Label("Entries")
+        int entries;
+    }
+
+    @Name("free.servpp.config.AddManager")
+    @Label("Config Add To Manager")
+    @Category({"SPP Config", "Load"})
+    @Description("Registration of the entries of one type with its manager")
+    static final class AddManagerEvent extends Event {
+        @Label("Type")
+        String configType;
+
+        @Label("ID Entries")
+        int idEntries;
+
+        @Label("Modifier Entries")
+        int modifierEntries;
+    }
+}
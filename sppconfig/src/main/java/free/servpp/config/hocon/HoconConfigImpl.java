@@ -0,0 +1,217 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.IConfig;
+
+
+/**
+ * The HoconConfigImpl class is an implementation of the IConfig interface
+ * that manages configuration data using the Typesafe Config library (HOCON).
+ * This class supports merging configurations and tracking the merged status.
+ *
+ * An instance is only merged before it is handed out; both fields are volatile so that
+ * a configuration published to other threads is always seen fully merged.
+ *
+ * An instance may also be a small delta over a shared base configuration, as created for
+ * every ID or modifier a source lists. The delta and the base are only combined when the
+ * configuration is first read, so unread entries cost no more than their delta.
+ *
+ * @author lidong
+ * @date 2024-08-02
+ * @version 1.0
+ */
+public class HoconConfigImpl implements IConfig<Config> {
+    private volatile boolean merged;
+    // The configuration, or null until the delta has been combined with its base.
+    private volatile Config config;
+    // The entries of this configuration on top of the base; the whole configuration if there is no base.
+    private final Config delta;
+    // The configuration shared with other entries expanded from the same source, or null.
+    private final Config base;
+    private static final Object[] NO_PATH_VALUES = new Object[0];
+    // Values resolved through ConfigPath handles: an open-addressed table of handle and value
+    // pairs, at most half full, that is copied when a value is added.
+    private volatile Object[] pathValues = NO_PATH_VALUES;
+
+    /**
+     * Constructs a new HoconConfigImpl with the provided HOCON configuration.
+     *
+     * @param config The HOCON configuration object to be managed by this instance.
+     */
+    public HoconConfigImpl(Config config) {
+        this.config = config;
+        this.delta = config;
+        this.base = null;
+    }
+
+    /**
+     * Constructs a new HoconConfigImpl consisting of a delta over a shared base configuration.
+     *
+     * @param delta The entries specific to this configuration.
+     * @param base  The configuration the delta falls back to, shared with other instances.
+     */
+    public HoconConfigImpl(Config delta, Config base) {
+        this.delta = delta;
+        this.base = base;
+    }
+
+    /**
+     * Returns whether this configuration has been merged with another.
+     *
+     * @return true if the configuration has been merged; false otherwise.
+     */
+    @Override
+    public boolean isMerged() {
+        return merged;
+    }
+
+    /**
+     * Merges the current configuration with another configuration.
+     * This method uses HOCON's withFallback method to merge configurations,
+     * combining the current configuration with the provided one. A flat or mapped fallback
+     * is decoded into a HOCON tree first.
+     *
+     * @param conf The configuration to merge with the current configuration.
+     */
+    @Override
+    public void mergeSuper(IConfig conf) {
+        this.config = getConfigObject().withFallback(toConfig(conf));
+        pathValues = NO_PATH_VALUES;
+    }
+
+    /**
+     * Sets the merged status of this configuration.
+     *
+     * @param b The boolean value representing whether this configuration has been merged.
+     */
+    @Override
+    public void setMerged(boolean b) {
+        merged = b;
+    }
+
+    /**
+     * Retrieves the underlying HOCON configuration object managed by this instance.
+     * A delta is combined with its base on the first call.
+     *
+     * @return The HOCON configuration object.
+     */
+    @Override
+    public Config getConfigObject() {
+        Config ret = config;
+        if (ret == null) {
+            // Racing threads compute equal configurations, so either result may be kept
+            ret = delta.withFallback(base);
+            config = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the HOCON tree of any configuration of this package, decoding a mapped or
+     * flattened one; a HoconConfigImpl is returned as is.
+     *
+     * @param config the configuration
+     * @return the configuration as a HOCON configuration
+     * @throws IllegalArgumentException if the configuration is of another kind
+     */
+    static Config toConfig(IConfig config) {
+        Object object = config.getConfigObject();
+        if (object instanceof Config)
+            return (Config) object;
+        if (object instanceof MappedConfig)
+            return ((MappedConfig) object).toConfig();
+        if (object instanceof FlatConfig)
+            return ((FlatConfig) object).toConfig();
+        throw new IllegalArgumentException("Not a HOCON configuration: " + object.getClass().getName());
+    }
+
+    /**
+     * Returns the entries of this configuration on top of its base.
+     *
+     * @return The delta, or the whole configuration if there is no base.
+     */
+    Config getDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the base configuration shared with other entries.
+     *
+     * @return The base, or null if this configuration has none.
+     */
+    Config getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the value cached for a ConfigPath, or null if it has not been resolved yet.
+     *
+     * @param path The ConfigPath.
+     * @return The cached value.
+     */
+    Object getPathValue(ConfigPath path) {
+        Object[] table = pathValues;
+        int mask = (table.length >> 1) - 1;
+        if (mask < 0)
+            return null;
+        // The table is at most half full, so the probe ends at an empty pair
+        for (int i = path.hash & mask; ; i = (i + 1) & mask) {
+            Object key = table[i << 1];
+            if (key == path)
+                return table[(i << 1) + 1];
+            if (key == null)
+                return null;
+        }
+    }
+
+    /**
+     * Caches the value resolved for a ConfigPath. The value is only cached if the
+     * configuration is still the one it was resolved against. A value cached concurrently
+     * by another thread may be lost, in which case it is resolved again.
+     *
+     * @param path     The ConfigPath.
+     * @param resolved The configuration the value was resolved against.
+     * @param value    The resolved value.
+     */
+    void setPathValue(ConfigPath path, Config resolved, Object value) {
+        Object[] table = pathValues;
+        if (resolved != config)
+            return;
+        int count = 1;
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != null)
+                count++;
+        }
+        int pairs = 4;
+        while (pairs < count * 2)
+            pairs <<= 1;
+        Object[] updated = new Object[pairs * 2];
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != null)
+                putPathValue(updated, (ConfigPath) table[i], table[i + 1]);
+        }
+        putPathValue(updated, path, value);
+        pathValues = updated;
+    }
+
+    private static void putPathValue(Object[] table, ConfigPath path, Object value) {
+        int mask = (table.length >> 1) - 1;
+        int i = path.hash & mask;
+        while (table[i << 1] != null && table[i << 1] != path)
+            i = (i + 1) & mask;
+        table[i << 1] = path;
+        table[(i << 1) + 1] = value;
+    }
+
+    /**
+     * Creates a new, unmerged HoconConfigImpl sharing the HOCON configuration object of this instance,
+     * or its delta and base if they have not been combined yet.
+     *
+     * @return A copy of this configuration.
+     */
+    @Override
+    public HoconConfigImpl copy() {
+        Config current = config;
+        return current == null ? new HoconConfigImpl(delta, base) : new HoconConfigImpl(current);
+    }
+}
\ No newline at end of file
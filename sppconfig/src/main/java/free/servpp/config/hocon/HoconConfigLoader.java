@@ -0,0 +1,1275 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigurableForLoad;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+
+/**
+ * This class is responsible for loading configuration files in HOCON format from a specified resources directory.
+ * It initializes a HoconConfigTypeManager to manage configurations and provides functionality to load and group configurations
+ * based on their identifiers and modifiers.
+ *
+ * A file may hold several top-level roots; each root is an entry of the type named by its key.
+ */
+public class HoconConfigLoader {
+    // Keeps every root of a source.
+    private static final Predicate<String> ALL_ROOTS = key -> true;
+
+    private String configFileExtension = ".conf";
+    private String resourcesDir = "";
+    private HoconConfigTypeManager manager;
+    private IConfigurableBuilder builder;
+    // The executor used to parse files concurrently, or null to parse on the calling thread.
+    private ExecutorService executor;
+    private HoconLoadReport loadReport = new HoconLoadReport();
+    // Whether all configurations are resolved at load time instead of on first lookup.
+    private boolean eagerMerge;
+    // Whether the configurations of different types are classified in parallel.
+    private boolean parallelClassification;
+    // The compiled form of the loaded configurations, or null to always parse the sources.
+    private File compiledConfigFile;
+    // Whether an index resource compiled at build time is used instead of the sources.
+    private boolean useIndexResource;
+    // Configuration entry names found in JAR central directories, keyed by archive, prefix and modification time.
+    private final Map<String, List<String>> jarEntryIndex = new ConcurrentHashMap<>();
+    // The loaded roots by source and root key, in load order, kept so that a reload can rebuild single types.
+    private Map<String, Map<String, Config>> configsBySource = new LinkedHashMap<>();
+    // The file-system directories loaded so far.
+    private final List<File> loadedDirectories = new ArrayList<>();
+    // The single files loaded so far, outside of the loaded directories.
+    private final List<File> loadedFiles = new ArrayList<>();
+    // Whether the last load was served from the compiled file or the index resource, which keep no per-source state.
+    private boolean compiledLoad;
+    // Whether sources are only indexed by root key at load time and parsed on the first use of their type.
+    private boolean lazy;
+    // The sources of the types not used yet in a lazy load, by type, in load order.
+    private final Map<String, List<LazySource>> lazyIndex = new LinkedHashMap<>();
+    // The types of the lazy index, replaced on every change of it, so that readers never take the loader lock.
+    private volatile Set<String> pendingTypes = Collections.emptySet();
+
+    /**
+     * Constructs a HoconConfigLoader with the specified configuration file extension, resources directory, and builder.
+     *
+     * @param configFileExtension the file extension for configuration files
+     * @param resourcesDir        the directory from which to load configuration files
+     * @param builder             the builder for creating configurable objects
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    public HoconConfigLoader(String configFileExtension, String resourcesDir, IConfigurableBuilder builder) {
+        this.configFileExtension = configFileExtension;
+        this.resourcesDir = resourcesDir;
+        this.builder = builder;
+        manager = new HoconConfigTypeManager().setBuilder(builder);
+    }
+
+    /**
+     * Returns the configuration type manager.
+     *
+     * @return the HoconConfigTypeManager instance
+     */
+    public HoconConfigTypeManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Sets the executor used to parse configuration files concurrently, for example a
+     * ForkJoinPool or, on runtimes that provide them, a virtual-thread-per-task executor.
+     * Files are still merged in directory walk order, so the result does not depend on
+     * the executor. The executor is not shut down by the loader.
+     *
+     * @param executor the executor to parse files on, or null to parse on the calling thread
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the compiled configuration file used to skip parsing on later starts. When set,
+     * load() reads the file if it was compiled from the current sources, and otherwise parses
+     * the sources and writes the file, as a best effort. A load served from the file keeps no
+     * per-file state, so the first reload after it parses all sources again.
+     *
+     * @param compiledConfigFile the compiled configuration file, or null to always parse
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setCompiledConfigFile(File compiledConfigFile) {
+        this.compiledConfigFile = compiledConfigFile;
+        return this;
+    }
+
+    /**
+     * Sets whether load() uses the index resource written at build time by the sppconfig Maven
+     * plugin, if the classpath has one for the resources directory. The index replaces the
+     * scan and parse of the sources and keeps no per-file state, so the first reload after
+     * it parses all sources again.
+     * It is off by default. Since the index of a module only covers the sources of that
+     * module, the sources are parsed instead when the classpath holds more than one index
+     * for the resources directory.
+     *
+     * @param useIndexResource true to use an index resource found on the classpath
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setUseIndexResource(boolean useIndexResource) {
+        this.useIndexResource = useIndexResource;
+        return this;
+    }
+
+    /**
+     * Sets whether every known ID and modifier combination is resolved and merged at load time.
+     * Lookups then only read the resolution cache instead of merging on the first request.
+     *
+     * @param eagerMerge true to resolve all configurations at load time
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setEagerMerge(boolean eagerMerge) {
+        this.eagerMerge = eagerMerge;
+        return this;
+    }
+
+    /**
+     * Sets whether the configurations of different types are classified in parallel.
+     * The builder must then be safe to call from several threads.
+     *
+     * @param parallelClassification true to classify types in parallel
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setParallelClassification(boolean parallelClassification) {
+        this.parallelClassification = parallelClassification;
+        return this;
+    }
+
+    /**
+     * Sets whether types are loaded lazily. A lazy load only reads every source up to its
+     * root key to index the sources by type; a type is parsed and classified when its
+     * manager is first requested from {@link HoconConfigTypeManager#getHoconConfigManager(String)}.
+     * Startup time and memory then depend only on the types that are used.
+     * A source with several root keys is indexed under each of them, and loading a type
+     * parses only the roots of that type. A lazy load neither reads nor writes the
+     * compiled configuration file.
+     *
+     * @param lazy true to load types on their first use
+     * @return the current instance of HoconConfigLoader for method chaining
+     */
+    public HoconConfigLoader setLazy(boolean lazy) {
+        this.lazy = lazy;
+        manager.setTypeLoader(lazy ? new HoconConfigTypeManager.TypeLoader() {
+            @Override
+            public HoconConfigManager loadType(String type) {
+                try {
+                    return HoconConfigLoader.this.loadType(type);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot load configurations of type " + type, e);
+                }
+            }
+
+            @Override
+            public Set<String> getPendingTypes() {
+                return HoconConfigLoader.this.getPendingTypes();
+            }
+        } : null);
+        return this;
+    }
+
+    /**
+     * Returns the timings recorded by the most recent load.
+     *
+     * @return the HoconLoadReport of the last load
+     */
+    public HoconLoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    public void load(File file) throws IOException {
+        HoconConfigEvents.LoadEvent event = new HoconConfigEvents.LoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        List<Config> mergedConfig = loadConfigsFromFile(file);
+        handleConfigs(mergedConfig);
+        loadReport.setWallClockNanos(System.nanoTime() - start);
+        commitLoadEvent(event, file.getPath(), false);
+    }
+    /**
+     * Loads configuration files from the specified resources directory,
+     * groups them by their root keys, and adds them to the manager.
+     *
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    public void load() throws IOException {
+        HoconConfigEvents.LoadEvent event = new HoconConfigEvents.LoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (useIndexResource && !lazy && readIndexResource()) {
+            recordCompiledLoad();
+            if (eagerMerge)
+                manager.preResolveConfigs();
+            loadReport.setWallClockNanos(System.nanoTime() - start);
+            commitLoadEvent(event, resourcesDir, true);
+            return;
+        }
+        byte[] sourceHash = null;
+        if (compiledConfigFile != null && !lazy) {
+            sourceHash = computeSourceHash(resourcesDir);
+            if (CompiledConfigFile.read(compiledConfigFile, sourceHash, manager)) {
+                loadReport = new HoconLoadReport();
+                recordCompiledLoad();
+                if (eagerMerge)
+                    manager.preResolveConfigs();
+                loadReport.setWallClockNanos(System.nanoTime() - start);
+                commitLoadEvent(event, resourcesDir, true);
+                return;
+            }
+        }
+        // Load all .conf files from the resources directory and its subdirectories
+        List<Config> mergedConfig = loadConfigsFromResources(resourcesDir);
+        handleConfigs(mergedConfig);
+        synchronized (this) {
+            compiledLoad = false;
+        }
+        if (sourceHash != null) {
+            try {
+                CompiledConfigFile.write(manager, sourceHash, compiledConfigFile);
+            } catch (ConfigException | IOException e) {
+                // Writing is a best effort: configurations that cannot be compiled, such as unresolved
+                // substitutions, or a file that cannot be written are parsed again on the next start
+                System.getLogger(HoconConfigLoader.class.getName()).log(System.Logger.Level.WARNING,
+                        "Cannot write the compiled configuration file " + compiledConfigFile
+                                + "; every start parses the sources until it can be written", e);
+            }
+        }
+        loadReport.setWallClockNanos(System.nanoTime() - start);
+        commitLoadEvent(event, resourcesDir, false);
+    }
+
+    private void commitLoadEvent(HoconConfigEvents.LoadEvent event, String source, boolean compiled) {
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.files = loadReport.getParseNanosByFile().size();
+            event.types = manager.getConfigTypes().size();
+            event.compiled = compiled;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a load served from the compiled file or the index resource: the file-system
+     * directories of the resources directory are recorded so that they can be watched, and
+     * the next reload parses all sources, since there is no per-source state to update.
+     *
+     * @throws IOException if the resources directory cannot be listed
+     */
+    private synchronized void recordCompiledLoad() throws IOException {
+        compiledLoad = true;
+        Enumeration<URL> urls = Thread.currentThread().getContextClassLoader().getResources(resourcesDir);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            File directory = new File(url.getFile());
+            if ("file".equals(url.getProtocol()) && directory.isDirectory() && !loadedDirectories.contains(directory))
+                loadedDirectories.add(directory);
+        }
+    }
+
+    /**
+     * Reads the index resource of the resources directory from the classpath, if there is
+     * exactly one.
+     *
+     * @return true if the index was read into the manager
+     * @throws IOException if the index cannot be read or is corrupt
+     */
+    private boolean readIndexResource() throws IOException {
+        Enumeration<URL> indexes = Thread.currentThread().getContextClassLoader()
+                .getResources(CompiledConfigFile.getIndexResourceName(resourcesDir));
+        if (!indexes.hasMoreElements())
+            return false;
+        URL index = indexes.nextElement();
+        // Several modules contribute to the resources directory, and no single index covers them all
+        if (indexes.hasMoreElements())
+            return false;
+        byte[] bytes;
+        try (InputStream inputStream = index.openStream()) {
+            bytes = inputStream.readAllBytes();
+        }
+        loadReport = new HoconLoadReport();
+        return CompiledConfigFile.read(ByteBuffer.wrap(bytes), null, index.toExternalForm(), manager);
+    }
+
+    /**
+     * Computes a hash over the configuration sources of the given resource directory, without
+     * parsing them: the content of every file, the CRC of every jar entry, and the settings
+     * and builder fingerprint that determine how the sources are classified.
+     *
+     * @param resourceDir the directory from which configuration files are loaded
+     * @return the SHA-256 hash of the sources
+     * @throws IOException if an error occurs while reading the sources
+     */
+    public byte[] computeSourceHash(String resourceDir) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        updateDigest(digest, configFileExtension);
+        updateDigest(digest, resourceDir);
+        updateDigest(digest, builder.getFingerprint());
+        Enumeration<URL> urls = Thread.currentThread().getContextClassLoader().getResources(resourceDir);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            updateDigest(digest, url.toExternalForm());
+            if ("file".equals(url.getProtocol())) {
+                List<File> files = new ArrayList<>();
+                collectConfigFiles(new File(url.getFile()), files);
+                for (File file : files) {
+                    updateDigest(digest, file.getPath());
+                    digest.update(Files.readAllBytes(file.toPath()));
+                }
+            } else if ("jar".equals(url.getProtocol())) {
+                String[] segments = url.getPath().split("!/");
+                File archive;
+                try {
+                    archive = new File(new URL(segments[0]).toURI()).getCanonicalFile();
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    throw new IOException("Unsupported jar URL " + url, e);
+                }
+                try (JarFile jarFile = new JarFile(archive)) {
+                    if (segments.length <= 2) {
+                        String dir = segments.length > 1 ? segments[1] : resourceDir;
+                        String prefix = dir.isEmpty() || dir.endsWith("/") ? dir : dir + "/";
+                        for (String entryName : getJarEntryNames(archive, jarFile, prefix)) {
+                            updateDigest(digest, entryName);
+                            updateDigest(digest, Long.toHexString(jarFile.getJarEntry(entryName).getCrc()));
+                        }
+                    } else {
+                        // The CRC of the nested jar covers all of its entries
+                        JarEntry nested = jarFile.getJarEntry(segments[1]);
+                        updateDigest(digest, nested == null ? "" : Long.toHexString(nested.getCrc()));
+                    }
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void updateDigest(MessageDigest digest, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private void handleConfigs(List<Config> mergedConfig) {
+        HoconConfigEvents.GroupEvent event = new HoconConfigEvents.GroupEvent();
+        event.begin();
+        Map<String, List<Config>> groupedByConfig = groupByRoot(mergedConfig);
+        if (event.shouldCommit()) {
+            event.configs = mergedConfig.size();
+            event.types = groupedByConfig.size();
+            event.commit();
+        }
+        Map<String, List<ClassifiedConfig>> classified = classifyTypes(groupedByConfig);
+        for (Map.Entry<String, List<ClassifiedConfig>> entry : classified.entrySet()) {
+            List<ClassifiedConfig> confs = entry.getValue();
+            if (confs.size() != 0)
+                manager.addClassifiedConfigs(entry.getKey(), confs);
+        }
+        if (eagerMerge)
+            manager.preResolveConfigs();
+    }
+
+    /**
+     * Classifies the configurations of every type, in parallel across types if enabled.
+     *
+     * @param groupedByConfig the configurations grouped by type
+     * @return the classified entries of every type
+     */
+    private Map<String, List<ClassifiedConfig>> classifyTypes(Map<String, List<Config>> groupedByConfig) {
+        return (parallelClassification ? groupedByConfig.entrySet().parallelStream() : groupedByConfig.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> classifyConfigs(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * Classifies the configurations of one type in a single pass: the builder is called once
+     * per configuration, and its IDs and modifiers are recorded. The recorded configurables
+     * are then expanded by their modifiers and IDs, checking for duplicates.
+     *
+     * @param type  the type of configuration
+     * @param value the configurations of the type
+     * @return the entries to be added to the manager of the type
+     */
+    private List<ClassifiedConfig> classifyConfigs(String type, List<Config> value) {
+        HoconConfigEvents.ClassifyEvent event = new HoconConfigEvents.ClassifyEvent();
+        event.begin();
+        List<LoadedConfigurable> configurables = new ArrayList<>(value.size());
+        for (Config config : value) {
+            IConfigurableForLoad configurable = (IConfigurableForLoad) builder.build(type, config);
+            if (configurable != null)
+                configurables.add(new LoadedConfigurable(config, configurable));
+        }
+        List<ClassifiedConfig> confs = new ArrayList<>();
+        addConfigByModifiersToList(configurables, type, confs);
+        addConfigByIdsToList(configurables, type, confs);
+        if (event.shouldCommit()) {
+            event.configType = type;
+            event.configs = value.size();
+            event.entries = confs.size();
+            event.commit();
+        }
+        return confs;
+    }
+
+    /**
+     * Starts watching the file-system directories and single files loaded so far. Only the
+     * loaded files themselves are watched, not their siblings. Changes are debounced
+     * and then passed to {@link #reload(Collection)}, which re-parses only the changed files
+     * and swaps in rebuilt managers for the affected types.
+     *
+     * @param debounceMillis how long the directories must stay quiet before a reload starts
+     * @return the started watcher, to be closed when changes should no longer be picked up
+     * @throws IOException if the directories cannot be watched
+     */
+    public HoconConfigWatcher watch(long debounceMillis) throws IOException {
+        HoconConfigWatcher watcher = new HoconConfigWatcher(this, debounceMillis);
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * Returns the file-system directories loaded so far, which are the roots watched for changes.
+     *
+     * @return the loaded directories
+     */
+    synchronized List<File> getLoadedDirectories() {
+        return new ArrayList<>(loadedDirectories);
+    }
+
+    /**
+     * Returns the single files loaded so far by {@link #load(File)}, which are watched
+     * without the other files of their directories.
+     *
+     * @return the loaded files
+     */
+    synchronized List<File> getLoadedFiles() {
+        return new ArrayList<>(loadedFiles);
+    }
+
+    /**
+     * Re-parses the given changed, added or deleted files and rebuilds the managers of the
+     * types they contributed to, before or after the change. A directory stands for every
+     * file below it. All other files are left as they were loaded.
+     * The rebuilt managers replace the old ones only if every affected type could be rebuilt,
+     * so a failing reload leaves the current configuration in place.
+     * After a load served from the compiled file or the index resource, all sources of the
+     * resources directory are parsed and every type is rebuilt instead.
+     *
+     * @param changedFiles the files or directories that changed
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    public synchronized void reload(Collection<File> changedFiles) throws IOException {
+        long start = System.nanoTime();
+        if (compiledLoad) {
+            reloadAll();
+            loadReport.setWallClockNanos(System.nanoTime() - start);
+            return;
+        }
+        loadReport = new HoconLoadReport();
+        Map<String, Map<String, Config>> sources = new LinkedHashMap<>(configsBySource);
+        Set<String> types = new HashSet<>();
+        List<File> files = new ArrayList<>();
+        for (File changed : changedFiles) {
+            collectConfigFiles(changed, files);
+        }
+        Set<String> present = new HashSet<>();
+        for (File file : files) {
+            present.add(file.getPath());
+        }
+        Iterator<Map.Entry<String, Map<String, Config>>> it = sources.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Map<String, Config>> entry = it.next();
+            String source = entry.getKey();
+            if (isBelow(source, changedFiles) && !present.contains(source)) {
+                types.addAll(entry.getValue().keySet());
+                it.remove();
+            }
+        }
+        for (Map.Entry<String, List<LazySource>> entry : lazyIndex.entrySet()) {
+            for (LazySource source : entry.getValue()) {
+                if (isBelow(source.source, changedFiles) && !present.contains(source.source))
+                    types.add(entry.getKey());
+            }
+        }
+        List<Callable<ParsedConfig>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(() -> loadConfigFile(file, ALL_ROOTS));
+        }
+        for (ParsedConfig parsed : invokeAll(tasks)) {
+            loadReport.addParse(parsed.source, parsed.parseNanos);
+            Map<String, Config> old = sources.put(parsed.source, parsed.roots);
+            if (old != null)
+                types.addAll(old.keySet());
+            types.addAll(parsed.roots.keySet());
+        }
+
+        // Affected types that were not used yet are rebuilt from all of their sources
+        for (String type : types) {
+            List<LazySource> pending = lazyIndex.get(type);
+            if (pending == null)
+                continue;
+            List<Callable<ParsedConfig>> pendingTasks = new ArrayList<>();
+            for (LazySource source : pending) {
+                Map<String, Config> roots = sources.get(source.source);
+                if ((roots == null || !roots.containsKey(type)) && !isBelow(source.source, changedFiles))
+                    pendingTasks.add(() -> source.parser.parse(type::equals));
+            }
+            for (ParsedConfig parsed : invokeAll(pendingTasks)) {
+                loadReport.addParse(parsed.source, parsed.parseNanos);
+                // The roots of the source loaded so far are shared with the current state, so they are copied
+                Map<String, Config> roots = new LinkedHashMap<>(sources.getOrDefault(parsed.source, Collections.emptyMap()));
+                roots.putAll(parsed.roots);
+                sources.put(parsed.source, roots);
+            }
+        }
+
+        rebuildTypes(sources, types);
+        loadReport.setWallClockNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Parses all sources of the resources directory and rebuilds every type, for a reload
+     * after a load that kept no per-source state.
+     *
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    private void reloadAll() throws IOException {
+        Map<String, Map<String, Config>> previous = configsBySource;
+        configsBySource = new LinkedHashMap<>(previous);
+        try {
+            loadConfigsFromResources(resourcesDir);
+        } catch (IOException | RuntimeException e) {
+            configsBySource = previous;
+            throw e;
+        }
+        Map<String, Map<String, Config>> sources = configsBySource;
+        configsBySource = previous;
+        Set<String> types = new HashSet<>(manager.getConfigTypes());
+        for (Map<String, Config> roots : sources.values()) {
+            types.addAll(roots.keySet());
+        }
+        rebuildTypes(sources, types);
+        compiledLoad = false;
+    }
+
+    /**
+     * Classifies the roots of the given types from the given sources and replaces the managers
+     * of those types. The sources become the current ones only if every type could be rebuilt.
+     *
+     * @param sources the roots of every source, by source and root key
+     * @param types   the types to rebuild
+     */
+    private void rebuildTypes(Map<String, Map<String, Config>> sources, Set<String> types) {
+        List<Config> affected = new ArrayList<>();
+        for (Map<String, Config> roots : sources.values()) {
+            for (Map.Entry<String, Config> root : roots.entrySet()) {
+                if (types.contains(root.getKey()))
+                    affected.add(root.getValue());
+            }
+        }
+        Map<String, List<Config>> groupedByConfig = new HashMap<>(groupByRoot(affected));
+        Map<String, HoconConfigManager> rebuilt = new HashMap<>();
+        for (String type : types) {
+            groupedByConfig.putIfAbsent(type, Collections.emptyList());
+        }
+        for (Map.Entry<String, List<ClassifiedConfig>> entry : classifyTypes(groupedByConfig).entrySet()) {
+            rebuilt.put(entry.getKey(), manager.createClassifiedManager(entry.getKey(), entry.getValue()));
+        }
+        if (eagerMerge)
+            rebuilt.values().parallelStream().forEach(HoconConfigManager::preResolveConfigs);
+        configsBySource = sources;
+        manager.replaceManagers(rebuilt);
+        if (lazyIndex.keySet().removeAll(rebuilt.keySet()))
+            updatePendingTypes();
+    }
+
+    /**
+     * Reads the root keys of a source to index it for a lazy load. A source whose root keys
+     * cannot be found by scanning it is parsed right away.
+     *
+     * @param source the location of the source
+     * @param opener opens the source for scanning
+     * @param parser parses the roots of the source when their type is used
+     * @return the indexed source
+     * @throws Exception if the source cannot be read or parsed
+     */
+    private LazySource indexSource(String source, Callable<InputStream> opener, SourceParser parser) throws Exception {
+        Set<String> types;
+        try (Reader reader = new InputStreamReader(opener.call(), StandardCharsets.UTF_8)) {
+            types = RootSplitter.scan(reader);
+        }
+        if (types == null) {
+            ParsedConfig parsed = parser.parse(ALL_ROOTS);
+            return new LazySource(source, parsed.roots.keySet(), parsed::select);
+        }
+        return new LazySource(source, types, parser);
+    }
+
+    private synchronized void addLazySources(List<LazySource> sources) {
+        for (LazySource source : sources) {
+            for (String type : source.types) {
+                lazyIndex.computeIfAbsent(type, t -> new ArrayList<>()).add(source);
+            }
+        }
+        updatePendingTypes();
+    }
+
+    /**
+     * Publishes the types of the lazy index after a change of it. Called with the loader lock held.
+     */
+    private void updatePendingTypes() {
+        pendingTypes = Collections.unmodifiableSet(new HashSet<>(lazyIndex.keySet()));
+    }
+
+    /**
+     * Returns the types not used yet in a lazy load, without taking the loader lock, which is
+     * held while sources are parsed.
+     */
+    private Set<String> getPendingTypes() {
+        return pendingTypes;
+    }
+
+    /**
+     * Parses the roots of a type of the pending sources of a lazy load, classifies them and
+     * registers the manager of the type. The sources stay pending if they cannot be loaded.
+     *
+     * @param type the type to load
+     * @return the registered manager, or null if the type has no pending sources
+     * @throws IOException if an error occurs while loading the sources
+     */
+    synchronized HoconConfigManager loadType(String type) throws IOException {
+        List<LazySource> sources = lazyIndex.get(type);
+        if (sources == null)
+            return null;
+        List<Callable<ParsedConfig>> tasks = new ArrayList<>(sources.size());
+        for (LazySource source : sources) {
+            tasks.add(() -> source.parser.parse(type::equals));
+        }
+        List<Config> configs = new ArrayList<>(sources.size());
+        addParsedConfigs(invokeAll(tasks), configs);
+        HoconConfigManager typeManager = manager.createClassifiedManager(type, classifyConfigs(type, configs));
+        if (eagerMerge)
+            typeManager.preResolveConfigs();
+        manager.replaceManager(type, typeManager);
+        lazyIndex.remove(type);
+        updatePendingTypes();
+        return typeManager;
+    }
+
+    /**
+     * Returns whether a source is one of the given files or lies below one of them.
+     */
+    private static boolean isBelow(String source, Collection<File> files) {
+        for (File file : files) {
+            String path = file.getPath();
+            if (source.equals(path) || source.startsWith(path + File.separator))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds configurations to the list based on their modifiers.
+     *
+     * @param value the recorded configurables to process
+     * @param type  the type of configuration
+     * @param confs the list to which valid configurations will be added
+     */
+    private void addConfigByModifiersToList(List<LoadedConfigurable> value, String type, List<ClassifiedConfig> confs) {
+        Map<String, Config> map = new HashMap<>();
+        for (LoadedConfigurable configurable : value) {
+            Config config = configurable.config;
+            List<String> ids = configurable.ids;
+            List<String> modifiers = configurable.modifiers;
+
+            if (ids == null && modifiers == null) {
+                String id = configurable.id;
+                String modifier = configurable.modifier;
+
+                if (id == null && modifier == null) {
+                    if (map.get("*") != null)
+                        throw new RuntimeException("Duplicate default config for " + type);
+                    confs.add(configurable.toClassifiedConfig());
+                    map.put("*", config);
+                } else if (modifier != null) {
+                    if (map.get(modifier) != null)
+                        throw new RuntimeException("Duplicate config for " + type + " with modifier " + modifier);
+                    confs.add(configurable.toClassifiedConfig());
+                    map.put(modifier, config);
+                }
+            } else if (modifiers != null) {
+                // Every modifier is a delta over the configuration of the source, which all of them share
+                for (String modifier : modifiers) {
+                    Config delta = configurable.configurable.createConfigByModifier(modifier);
+                    if (map.get(modifier) != null)
+                        throw new RuntimeException("Duplicate config for " + type + " with modifier " + modifier);
+                    confs.add(new ClassifiedConfig(delta, config, IConfigManager.ConfigLevel.MODIFIER, modifier));
+                    map.put(modifier, config);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds configurations to the list based on their IDs.
+     *
+     * @param value the recorded configurables to process
+     * @param type  the type of configuration
+     * @param confs the list to which valid configurations will be added
+     */
+    private void addConfigByIdsToList(List<LoadedConfigurable> value, String type, List<ClassifiedConfig> confs) {
+        Map<String, Config> map = new HashMap<>();
+        for (LoadedConfigurable configurable : value) {
+            Config config = configurable.config;
+            List<String> ids = configurable.ids;
+            List<String> modifiers = configurable.modifiers;
+            if (ids == null && modifiers == null) {
+                String id = configurable.id;
+                if (id != null) {
+                    if (map.get(id) != null)
+                        throw new RuntimeException("Duplicate config for " + type + " with id " + id);
+                    confs.add(configurable.toClassifiedConfig());
+                    map.put(id, config);
+                }
+            } else if (ids != null) {
+                // Every ID is a delta over the configuration of the source, which all of them share
+                for (String id : ids) {
+                    Config delta = configurable.configurable.createConfigById(id);
+                    if (map.get(id) != null)
+                        throw new RuntimeException("Duplicate config for " + type + " with id " + id);
+                    confs.add(new ClassifiedConfig(delta, config, IConfigManager.ConfigLevel.ID, id));
+                    map.put(id, config);
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups configurations by their root keys. Every configuration has a single root key,
+     * since sources are split into their roots when they are parsed.
+     *
+     * @param mergedConfig the list of merged configurations
+     * @return a map where the keys are the root keys and the values are lists of configurations
+     */
+    private Map<String, List<Config>> groupByRoot(List<Config> mergedConfig) {
+        return mergedConfig.stream()
+                .collect(Collectors.groupingBy(new Function<Config, String>() {
+                    @Override
+                    public String apply(Config config) {
+                        return getRootKey(config);
+                    }
+                }));
+    }
+
+    /**
+     * Returns the root key of a configuration, which is the type it belongs to.
+     *
+     * @param config the configuration
+     * @return the root key of the configuration
+     */
+    private static String getRootKey(Config config) {
+        return config.root().entrySet().iterator().next().getKey();
+    }
+
+    /**
+     * Loads configuration files from the specified resources directory.
+     *
+     * @param resourceDir the directory from which to load configuration files
+     * @return a list of loaded configuration objects
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    public List<Config> loadConfigsFromResources(String resourceDir) throws IOException {
+        loadReport = new HoconLoadReport();
+        List<Config> configs = new ArrayList<>();
+        loadConfigsFromResourceDirectory(resourceDir, configs);
+        return configs;
+    }
+    public List<Config> loadConfigsFromFile(File file) throws IOException {
+        loadReport = new HoconLoadReport();
+        List<Config> configs = new ArrayList<>();
+        loadConfigsFromFileSystem(file.toURL(),configs);
+        return configs;
+    }
+
+    /**
+     * Loads configuration files from a specific resource directory.
+     *
+     * @param resourceDir the directory from which to load configuration files
+     * @param configs     the list to which loaded configurations will be added
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    private void loadConfigsFromResourceDirectory(String resourceDir, List<Config> configs) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Enumeration<URL> urls = classLoader.getResources(resourceDir);
+        // Archive locations already loaded, so a jar listed under several URLs is loaded once
+        Set<String> loadedLocations = new HashSet<>();
+
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                loadConfigsFromFileSystem(url, configs);
+            } else if ("jar".equals(url.getProtocol())) {
+                loadConfigsFromJar(url, resourceDir, configs, loadedLocations);
+            }
+        }
+    }
+
+    /**
+     * Loads configuration files from the file system.
+     * The directory tree is walked first; the files found are then parsed, concurrently
+     * if an executor is set, and added in walk order.
+     *
+     * @param url     the URL pointing to the resources directory
+     * @param configs the list to which loaded configurations will be added
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    private void loadConfigsFromFileSystem(URL url, List<Config> configs) throws IOException {
+        File root = new File(url.getFile());
+        List<File> files = new ArrayList<>();
+        HoconConfigEvents.WalkEvent event = new HoconConfigEvents.WalkEvent();
+        event.begin();
+        collectConfigFiles(root, files);
+        if (event.shouldCommit()) {
+            event.path = root.getPath();
+            event.files = files.size();
+            event.commit();
+        }
+        if (lazy) {
+            List<Callable<LazySource>> tasks = new ArrayList<>(files.size());
+            for (File file : files) {
+                tasks.add(() -> indexSource(file.getPath(), () -> new FileInputStream(file), roots -> loadConfigFile(file, roots)));
+            }
+            addLazySources(invokeAll(tasks));
+        } else {
+            loadConfigFiles(files, configs);
+        }
+        synchronized (this) {
+            List<File> loaded = root.isDirectory() ? loadedDirectories : loadedFiles;
+            if (!loaded.contains(root))
+                loaded.add(root);
+        }
+    }
+
+    /**
+     * Collects the configuration files below the given file, in name order within each directory.
+     *
+     * @param file  the directory or single file to collect from
+     * @param files the list to which configuration files will be added
+     */
+    private void collectConfigFiles(File file, List<File> files) {
+        if (file.isDirectory()) {
+            // Handle directory traversal for file system resources
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children, Comparator.comparing(File::getName));
+                for (File f : children) {
+                    if (f.isDirectory()) {
+                        collectConfigFiles(f, files);
+                    } else if (f.getName().endsWith(configFileExtension)) {
+                        files.add(f);
+                    }
+                }
+            }
+        } else {
+            // Handle single file
+            if (file.getName().endsWith(configFileExtension)) {
+                files.add(file);
+            }
+        }
+    }
+
+    /**
+     * Parses the given configuration files and adds them to the provided list in the given order.
+     *
+     * @param files   the configuration files to parse
+     * @param configs the list to which the loaded configurations will be added
+     * @throws IOException if an error occurs while parsing the configuration files
+     */
+    private void loadConfigFiles(List<File> files, List<Config> configs) throws IOException {
+        List<Callable<ParsedConfig>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(() -> loadConfigFile(file, ALL_ROOTS));
+        }
+        addParsedConfigs(invokeAll(tasks), configs);
+    }
+
+    /**
+     * Adds parsed configurations to the provided list and records their parse times.
+     *
+     * @param parsedConfigs the parsed configurations, in load order
+     * @param configs       the list to which the configurations will be added
+     */
+    private synchronized void addParsedConfigs(List<ParsedConfig> parsedConfigs, List<Config> configs) {
+        for (ParsedConfig parsed : parsedConfigs) {
+            loadReport.addParse(parsed.source, parsed.parseNanos);
+            configs.addAll(parsed.roots.values());
+            // A lazy load parses the roots of a source type by type
+            Map<String, Config> roots = new LinkedHashMap<>(configsBySource.getOrDefault(parsed.source, Collections.emptyMap()));
+            roots.putAll(parsed.roots);
+            configsBySource.put(parsed.source, roots);
+        }
+    }
+
+    /**
+     * Runs the given tasks on the executor, or on the calling thread if there is none,
+     * and returns their results in task order.
+     *
+     * @param tasks the tasks to run
+     * @return the results of the tasks
+     * @throws IOException if a task failed with an IOException
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            if (executor == null) {
+                for (Callable<T> task : tasks) {
+                    results.add(task.call());
+                }
+            } else {
+                for (Future<T> future : executor.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading configuration files", e);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+        return results;
+    }
+
+    private static IOException rethrow(Throwable t) {
+        if (t instanceof IOException)
+            return (IOException) t;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        return new IOException(t);
+    }
+
+    /**
+     * Loads configuration files from a JAR file. The URL has the form
+     * {@code jar:file:/app.jar!/dir}, or {@code jar:file:/app.jar!/lib/inner.jar!/dir} for a jar
+     * nested in another one. The outer archive is opened once and its matching entries are
+     * parsed concurrently; nested archives are read as streams without being extracted.
+     *
+     * @param jarUrl          the URL pointing to the directory within the JAR file
+     * @param resourceDir     the directory within the JAR from which to load configuration files
+     * @param configs         the list to which loaded configurations will be added
+     * @param loadedLocations the archive locations already loaded by this load
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    private void loadConfigsFromJar(URL jarUrl, String resourceDir, List<Config> configs, Set<String> loadedLocations) throws IOException {
+        String[] segments = jarUrl.getPath().split("!/");
+        File archive;
+        try {
+            archive = new File(new URL(segments[0]).toURI()).getCanonicalFile();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Unsupported jar URL " + jarUrl, e);
+        }
+        List<String> nestedPath = Arrays.asList(segments).subList(1, Math.max(1, segments.length - 1));
+        String dir = segments.length > 1 ? segments[segments.length - 1] : resourceDir;
+        String prefix = dir.isEmpty() || dir.endsWith("/") ? dir : dir + "/";
+        String location = archive.getPath() + "!/" + (nestedPath.isEmpty() ? "" : String.join("!/", nestedPath) + "!/") + prefix;
+        if (!loadedLocations.add(location))
+            return;
+
+        try (JarFile jarFile = new JarFile(archive)) {
+            if (nestedPath.isEmpty() && lazy) {
+                List<Callable<LazySource>> tasks = new ArrayList<>();
+                for (String entryName : getJarEntryNames(archive, jarFile, prefix)) {
+                    JarEntry entry = jarFile.getJarEntry(entryName);
+                    String source = archive.getPath() + "!/" + entryName;
+                    // The archive is closed after indexing, so the entry is parsed from a reopened one
+                    tasks.add(() -> indexSource(source, () -> jarFile.getInputStream(entry), roots -> {
+                        try (JarFile reopened = new JarFile(archive)) {
+                            JarEntry reopenedEntry = reopened.getJarEntry(entryName);
+                            return loadConfigStream(source, () -> reopened.getInputStream(reopenedEntry), entry.getSize(), roots);
+                        }
+                    }));
+                }
+                addLazySources(invokeAll(tasks));
+            } else if (nestedPath.isEmpty()) {
+                List<Callable<ParsedConfig>> tasks = new ArrayList<>();
+                for (String entryName : getJarEntryNames(archive, jarFile, prefix)) {
+                    JarEntry entry = jarFile.getJarEntry(entryName);
+                    String source = archive.getPath() + "!/" + entryName;
+                    tasks.add(() -> loadConfigStream(source, () -> jarFile.getInputStream(entry), entry.getSize(), ALL_ROOTS));
+                }
+                addParsedConfigs(invokeAll(tasks), configs);
+            } else {
+                JarEntry nested = jarFile.getJarEntry(nestedPath.get(0));
+                if (nested == null)
+                    throw new IOException("Nested jar " + nestedPath.get(0) + " not found in " + archive);
+                try (InputStream inputStream = jarFile.getInputStream(nested)) {
+                    loadConfigsFromNestedJar(inputStream, archive.getPath() + "!/" + nestedPath.get(0),
+                            nestedPath.subList(1, nestedPath.size()), prefix, configs);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the configuration entries below the given prefix of a JAR file.
+     * The scan of the central directory is cached per archive, prefix and modification time.
+     *
+     * @param archive the JAR file on disk
+     * @param jarFile the opened JAR file
+     * @param prefix  the directory prefix of the entries, ending with a slash
+     * @return the names of the matching entries in archive order
+     */
+    private List<String> getJarEntryNames(File archive, JarFile jarFile, String prefix) {
+        String key = archive.getPath() + "!/" + prefix + "@" + archive.lastModified();
+        return jarEntryIndex.computeIfAbsent(key, k -> {
+            List<String> names = new ArrayList<>();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entry.isDirectory() && entryName.startsWith(prefix) && entryName.endsWith(configFileExtension)) {
+                    names.add(entryName);
+                }
+            }
+            return Collections.unmodifiableList(names);
+        });
+    }
+
+    /**
+     * Loads configuration files from a JAR nested in another archive, reading it as a stream.
+     * Matching entries are read in archive order and parsed concurrently.
+     *
+     * @param inputStream the stream of the nested JAR
+     * @param source      the location of the nested JAR, used to describe the loaded entries
+     * @param nestedPath  the names of further nested JARs leading to the configuration directory
+     * @param prefix      the directory prefix of the entries, ending with a slash
+     * @param configs     the list to which loaded configurations will be added
+     * @throws IOException if an error occurs while loading the configuration files
+     */
+    private void loadConfigsFromNestedJar(InputStream inputStream, String source, List<String> nestedPath,
+                                          String prefix, List<Config> configs) throws IOException {
+        JarInputStream jarInputStream = new JarInputStream(inputStream);
+        List<Callable<ParsedConfig>> tasks = new ArrayList<>();
+        List<Callable<LazySource>> indexTasks = new ArrayList<>();
+        JarEntry entry;
+        while ((entry = jarInputStream.getNextJarEntry()) != null) {
+            String entryName = entry.getName();
+            if (!nestedPath.isEmpty()) {
+                if (entryName.equals(nestedPath.get(0))) {
+                    loadConfigsFromNestedJar(jarInputStream, source + "!/" + entryName,
+                            nestedPath.subList(1, nestedPath.size()), prefix, configs);
+                    return;
+                }
+            } else if (!entry.isDirectory() && entryName.startsWith(prefix) && entryName.endsWith(configFileExtension)) {
+                byte[] bytes = jarInputStream.readAllBytes();
+                String entrySource = source + "!/" + entryName;
+                SourceParser parser = roots -> loadConfigStream(entrySource, () -> new ByteArrayInputStream(bytes), bytes.length, roots);
+                if (lazy) {
+                    // Entries of nested archives cannot be reopened, so their bytes are kept until their type is used
+                    indexTasks.add(() -> indexSource(entrySource, () -> new ByteArrayInputStream(bytes), parser));
+                } else {
+                    tasks.add(() -> parser.parse(ALL_ROOTS));
+                }
+            }
+        }
+        if (!nestedPath.isEmpty())
+            throw new IOException("Nested jar " + nestedPath.get(0) + " not found in " + source);
+        if (lazy)
+            addLazySources(invokeAll(indexTasks));
+        else
+            addParsedConfigs(invokeAll(tasks), configs);
+    }
+
+    /**
+     * Parses the selected roots of a single configuration file.
+     *
+     * @param file  the configuration file to load
+     * @param roots selects the root keys to keep
+     * @return the parsed roots
+     * @throws Exception if the file cannot be read or parsed
+     */
+    private ParsedConfig loadConfigFile(File file, Predicate<String> roots) throws Exception {
+        return parseSource(file.getPath(), file.length(), () -> new FileInputStream(file), () -> ConfigFactory.parseFile(file), roots);
+    }
+
+    /**
+     * Parses the selected roots of a configuration read from UTF-8 streams.
+     *
+     * @param source the location of the configuration, used as its origin
+     * @param opener opens a new stream of the configuration
+     * @param size   the size of the configuration in bytes, or -1 if unknown
+     * @param roots  selects the root keys to keep
+     * @return the parsed roots
+     * @throws Exception if the stream cannot be read or parsed
+     */
+    private ParsedConfig loadConfigStream(String source, Callable<InputStream> opener, long size, Predicate<String> roots) throws Exception {
+        return parseSource(source, size, opener, () -> {
+            try (Reader reader = new InputStreamReader(opener.call(), StandardCharsets.UTF_8)) {
+                return ConfigFactory.parseReader(reader, ConfigParseOptions.defaults().setOriginDescription(source));
+            }
+        }, roots);
+    }
+
+    /**
+     * Parses the selected roots of a source and records how long the parse took. The source
+     * is split into its roots while it is streamed, so only one root is held as text at a time
+     * and roots that are not selected are not parsed. A source that cannot be split that way
+     * is parsed as a whole and split afterwards.
+     *
+     * @param source the location of the source
+     * @param size   the size of the source in bytes, or -1 if unknown
+     * @param opener opens a new UTF-8 stream of the source
+     * @param parser parses the source as a whole
+     * @param roots  selects the root keys to keep
+     * @return the parsed roots
+     * @throws Exception if the source cannot be read or parsed
+     */
+    private ParsedConfig parseSource(String source, long size, Callable<InputStream> opener, Callable<Config> parser,
+                                     Predicate<String> roots) throws Exception {
+        HoconConfigEvents.ParseEvent event = new HoconConfigEvents.ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Map<String, Config> split;
+        try (Reader reader = new InputStreamReader(opener.call(), StandardCharsets.UTF_8)) {
+            split = RootSplitter.split(reader, source, roots);
+        }
+        if (split == null)
+            split = RootSplitter.split(parser.call(), roots);
+        long parseNanos = System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.path = source;
+            event.bytes = size;
+            event.roots = split.size();
+            event.commit();
+        }
+        return new ParsedConfig(source, split, parseNanos);
+    }
+
+    /**
+     * A configuration together with the configurable built for it once, and the IDs and
+     * modifiers read from that configurable.
+     */
+    private static final class LoadedConfigurable {
+        private final Config config;
+        private final IConfigurableForLoad configurable;
+        private final List<String> ids;
+        private final List<String> modifiers;
+        private final String id;
+        private final String modifier;
+
+        private LoadedConfigurable(Config config, IConfigurableForLoad configurable) {
+            this.config = config;
+            this.configurable = configurable;
+            this.ids = configurable.getConfigIdList();
+            this.modifiers = configurable.getModifierList();
+            // The scalar accessors are only meaningful when neither list is present
+            boolean scalar = ids == null && modifiers == null;
+            this.id = scalar ? configurable.getConfigId() : null;
+            this.modifier = scalar ? configurable.getModifier() : null;
+        }
+
+        /**
+         * Returns the entry of an unexpanded configuration, registered by ID if it has one,
+         * otherwise by modifier, otherwise as the default.
+         */
+        private ClassifiedConfig toClassifiedConfig() {
+            if (id != null)
+                return new ClassifiedConfig(config, IConfigManager.ConfigLevel.ID, id);
+            if (modifier != null)
+                return new ClassifiedConfig(config, IConfigManager.ConfigLevel.MODIFIER, modifier);
+            return new ClassifiedConfig(config, IConfigManager.ConfigLevel.DEFAULT, IConfigManager.DEFAULT);
+        }
+    }
+
+    /**
+     * Parses the roots of a source selected by a predicate.
+     */
+    private interface SourceParser {
+        ParsedConfig parse(Predicate<String> roots) throws Exception;
+    }
+
+    /**
+     * A source indexed by a lazy load: its root keys, and how to parse its roots once their type is used.
+     */
+    private static final class LazySource {
+        private final String source;
+        private final Set<String> types;
+        private final SourceParser parser;
+
+        private LazySource(String source, Set<String> types, SourceParser parser) {
+            this.source = source;
+            this.types = types;
+            this.parser = parser;
+        }
+    }
+
+    /**
+     * The roots parsed from one source, keyed by root key, together with the parse time.
+     */
+    private static final class ParsedConfig {
+        private final String source;
+        private final Map<String, Config> roots;
+        private final long parseNanos;
+
+        private ParsedConfig(String source, Map<String, Config> roots, long parseNanos) {
+            this.source = source;
+            this.roots = roots;
+            this.parseNanos = parseNanos;
+        }
+
+        /**
+         * Returns the roots of this source selected by a predicate, with the same parse time.
+         */
+        private ParsedConfig select(Predicate<String> selected) {
+            Map<String, Config> ret = new LinkedHashMap<>();
+            roots.forEach((key, config) -> {
+                if (selected.test(key))
+                    ret.put(key, config);
+            });
+            return new ParsedConfig(source, ret, parseNanos);
+        }
+    }
+}
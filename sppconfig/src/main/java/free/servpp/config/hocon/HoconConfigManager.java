@@ -0,0 +1,523 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.ConfigBatch;
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigTypeMetrics;
+import free.servpp.config.IConfigurable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+/**
+ * The HoconConfigManager class implements the IConfigManager interface,
+ * providing functionality to manage and retrieve HOCON configurations
+ * by either a unique identifier or a modifier. This class is responsible
+ * for storing configurations in memory and associating them with specific IDs or modifiers.
+ *
+ * The entries are held in an immutable snapshot that is published atomically.
+ * Readers never lock; writers copy the affected map, build a new snapshot and swap it in.
+ *
+ * @author lidong
+ * @date 2024-08-02
+ * @version 1.0
+ */
+public class HoconConfigManager implements IConfigManager {
+    private static final String CONFIG_FILE_EXTENSION = ".conf";
+    private static final String RESOURCES_DIR = ""; // Update this path if needed
+
+    private String configType;
+    // The current entries of this manager, replaced as a whole by every change.
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+    // The recorder of lookups and merges of this type, or null if metrics are off.
+    private volatile IConfigTypeMetrics metrics;
+    // Delivers the changes of the entries to subscribers, or null if nobody subscribed yet.
+    private volatile ConfigChangePublisher publisher;
+    // The type manager this manager is registered with, told about every new snapshot, or null.
+    private volatile HoconConfigTypeManager owner;
+
+    /**
+     * Constructs a new HoconConfigManager with the specified configuration type.
+     *
+     * @param configType The type of configuration managed by this instance.
+     */
+    public HoconConfigManager(String configType) {
+        this.configType = configType;
+    }
+
+    /**
+     * Retrieves the type of configuration managed by this instance.
+     *
+     * @return A string representing the configuration type.
+     */
+    @Override
+    public String getConfigType() {
+        return configType;
+    }
+
+    /**
+     * Sets the recorder of lookups, merges and entry counts of this manager.
+     * The current entry counts are reported to it right away.
+     *
+     * @param metrics The recorder to use, or null to turn metrics off.
+     */
+    public synchronized void setMetrics(IConfigTypeMetrics metrics) {
+        this.metrics = metrics;
+        if (metrics != null) {
+            Snapshot current = snapshot;
+            metrics.onEntries(current.configsById.size(), current.configsByModifier.size());
+        }
+    }
+
+    /**
+     * Subscribes to the changes of the entries of this manager. The filter must select this
+     * type or all types. Changes are delivered whenever entries are added to this manager,
+     * and, for a manager of a HoconConfigTypeManager, when it is replaced by a reload.
+     *
+     * @param filter     The changes to deliver.
+     * @param subscriber The subscriber to deliver them to.
+     */
+    public synchronized void subscribe(ConfigChangeFilter filter, Flow.Subscriber<? super ConfigChange> subscriber) {
+        if (!filter.matchesType(configType))
+            throw new IllegalArgumentException("Filter of type " + filter.getConfigType() + " used for " + configType);
+        if (publisher == null)
+            publisher = new ConfigChangePublisher();
+        publisher.subscribe(filter.getConfigType() == null ? ConfigChangeFilter.ofType(configType).under(filter.getPathPrefix()) : filter, subscriber);
+    }
+
+    /**
+     * Sets the publisher the changes of this manager are delivered through, shared by the
+     * managers of a HoconConfigTypeManager. Subscriptions made on this manager before are
+     * moved to that publisher.
+     *
+     * @param publisher The publisher to use.
+     */
+    synchronized void setPublisher(ConfigChangePublisher publisher) {
+        ConfigChangePublisher current = this.publisher;
+        if (current != null && current != publisher)
+            publisher.takeSubscriptions(current);
+        this.publisher = publisher;
+    }
+
+    /**
+     * Sets the type manager this manager is registered with.
+     *
+     * @param owner The type manager.
+     */
+    void setOwner(HoconConfigTypeManager owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the current entries of this manager.
+     *
+     * @return The current snapshot.
+     */
+    Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds a configuration to the manager, associated with a specific modifier.
+     * The configuration can later be retrieved using this modifier.
+     *
+     * @param modifier The modifier key used to associate with the configuration.
+     * @param config   The configuration to be added.
+     */
+    @Override
+    public synchronized void addConfigByModifier(String modifier, IConfig config) {
+        Snapshot current = snapshot;
+        Map<String, IConfig> configsByModifier = new HashMap<>(current.configsByModifier);
+        configsByModifier.put(modifier, config);
+        publish(new Snapshot(current.configsById, configsByModifier));
+    }
+
+    /**
+     * Adds a configuration to the manager, associated with a specific ID.
+     * The configuration can later be retrieved using this ID.
+     *
+     * @param configId The ID used to associate with the configuration.
+     * @param config   The configuration to be added.
+     */
+    @Override
+    public synchronized void addConfigById(String configId, IConfig config) {
+        Snapshot current = snapshot;
+        Map<String, IConfig> configsById = new HashMap<>(current.configsById);
+        configsById.put(configId, config);
+        publish(new Snapshot(configsById, current.configsByModifier));
+    }
+
+    /**
+     * Adds several configurations to the manager in a single update.
+     *
+     * @param configsById       The configurations to be added, keyed by ID.
+     * @param configsByModifier The configurations to be added, keyed by modifier.
+     */
+    public synchronized void addConfigs(Map<String, IConfig> configsById, Map<String, IConfig> configsByModifier) {
+        Snapshot current = snapshot;
+        Map<String, IConfig> byId = current.configsById;
+        Map<String, IConfig> byModifier = current.configsByModifier;
+        if (!configsById.isEmpty()) {
+            byId = new HashMap<>(byId);
+            byId.putAll(configsById);
+        }
+        if (!configsByModifier.isEmpty()) {
+            byModifier = new HashMap<>(byModifier);
+            byModifier.putAll(configsByModifier);
+        }
+        publish(new Snapshot(byId, byModifier));
+    }
+
+    /**
+     * Installs a snapshot with changed entries, reports the new entry counts and hands the old
+     * and new snapshots to the publisher, which diffs them after the lock is released.
+     * Must be called while holding the lock of this manager.
+     *
+     * @param next The snapshot to install.
+     */
+    private void publish(Snapshot next) {
+        Snapshot current = snapshot;
+        snapshot = next;
+        IConfigTypeMetrics metrics = this.metrics;
+        if (metrics != null)
+            metrics.onEntries(next.configsById.size(), next.configsByModifier.size());
+        HoconConfigTypeManager owner = this.owner;
+        if (owner != null)
+            owner.onSnapshotChanged();
+        ConfigChangePublisher publisher = this.publisher;
+        if (publisher != null && publisher.hasSubscriptions())
+            publisher.publish(configType, current, next);
+    }
+
+    /**
+     * Retrieves a configuration associated with a specific ID.
+     *
+     * @param configId The ID of the configuration to retrieve.
+     * @return The configuration associated with the given ID, or null if not found.
+     */
+    @Override
+    public IConfig getConfigById(String configId) {
+        return snapshot.getConfigById(configId);
+    }
+
+    /**
+     * Retrieves a configuration associated with a specific modifier.
+     *
+     * @param modifier The modifier of the configuration to retrieve.
+     * @return The configuration associated with the given modifier, or null if not found.
+     */
+    @Override
+    public IConfig getConfigByModifier(String modifier) {
+        return snapshot.getConfigByModifier(modifier);
+    }
+
+    /**
+     * Retrieves the IDs that have a configuration of their own.
+     *
+     * @return An unmodifiable set of the configuration IDs.
+     */
+    public Set<String> getConfigIds() {
+        return Collections.unmodifiableSet(snapshot.configsById.keySet());
+    }
+
+    /**
+     * Retrieves the modifiers that have a configuration of their own, including the default modifier.
+     *
+     * @return An unmodifiable set of the modifiers.
+     */
+    public Set<String> getModifiers() {
+        return Collections.unmodifiableSet(snapshot.configsByModifier.keySet());
+    }
+
+    /**
+     * Retrieves the configurations that were added by ID, as they were added.
+     *
+     * @return An unmodifiable map of the configurations keyed by ID.
+     */
+    public Map<String, IConfig> getConfigsById() {
+        return Collections.unmodifiableMap(snapshot.configsById);
+    }
+
+    /**
+     * Retrieves the configurations that were added by modifier, as they were added.
+     *
+     * @return An unmodifiable map of the configurations keyed by modifier.
+     */
+    public Map<String, IConfig> getConfigsByModifier() {
+        return Collections.unmodifiableMap(snapshot.configsByModifier);
+    }
+
+    /**
+     * Retrieves the configuration resolved for the given IConfigurable object.
+     * The configuration is resolved against a single snapshot, and the result is cached
+     * by the (ID, modifier) pair of the caller, so only the first lookup for a pair
+     * resolves and merges the configuration. An ID or modifier without an entry of its
+     * own resolves like a null one, so such callers share the cached result of that pair.
+     * Most such IDs and modifiers are ruled out by a filter of the snapshot up front, and
+     * go straight to the cached result of their fallback level.
+     * When metrics are on, the lookup is reported with the level it resolved at.
+     *
+     * @param configurable An object containing configuration identifiers (ID or modifier).
+     * @return The resolved configuration, or null if not found.
+     */
+    @Override
+    public IConfig getConfig(IConfigurable configurable) {
+        return getConfig(snapshot, metrics, configurable);
+    }
+
+    /**
+     * Retrieves the configurations of several IConfigurable objects at once. All of them are
+     * resolved against the same snapshot, and objects sharing an ID and modifier pair that is
+     * not cached yet are resolved and merged only once.
+     *
+     * @param configurables The objects to retrieve configurations for.
+     * @param batch The batch to fill; it is cleared first.
+     * @return The batch, holding the configuration of every object at its position.
+     */
+    @Override
+    public ConfigBatch getConfigs(Collection<? extends IConfigurable> configurables, ConfigBatch batch) {
+        batch.clear();
+        Snapshot current = snapshot;
+        IConfigTypeMetrics metrics = this.metrics;
+        int index = 0;
+        for (IConfigurable configurable : configurables) {
+            batch.set(index++, getConfig(current, metrics, configurable));
+        }
+        return batch;
+    }
+
+    private IConfig getConfig(Snapshot current, IConfigTypeMetrics metrics, IConfigurable configurable) {
+        String configId = configurable.getConfigId();
+        String modifier = configurable.getModifier();
+        // An ID or modifier known to have no entry resolves like a null one without probing the cache for it
+        if (configId != null && !current.idFilter.mightContain(configId)) {
+            configId = null;
+            if (metrics != null)
+                metrics.onAbsentKey(ConfigLevel.ID);
+        }
+        if (modifier != null && !current.modifierFilter.mightContain(modifier)) {
+            modifier = null;
+            if (metrics != null)
+                metrics.onAbsentKey(ConfigLevel.MODIFIER);
+        }
+        IConfig ret = current.resolvedConfigs.get(configId, modifier);
+        if (metrics != null && ret != null) {
+            metrics.onLookup(current.getLevel(configId, modifier), true);
+            return ret;
+        }
+        if (ret == null) {
+            if (configId != null && current.getConfigById(configId) == null) {
+                current.idFilter.markAbsent(configId);
+                configId = null;
+            }
+            if (modifier != null && current.getConfigByModifier(modifier) == null) {
+                current.modifierFilter.markAbsent(modifier);
+                modifier = null;
+            }
+            ret = current.resolvedConfigs.get(configId, modifier);
+            // The entry of the normalized ID and modifier may be cached already
+            boolean cached = ret != null;
+            if (ret == null) {
+                ret = current.resolveConfig(new ConfigKey(configId, modifier));
+                if (ret != null)
+                    ret = current.resolvedConfigs.putIfAbsent(configId, modifier, ret);
+            }
+            if (metrics != null) {
+                if (ret == null)
+                    metrics.onMiss();
+                else
+                    metrics.onLookup(current.getLevel(configId, modifier), cached);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Resolves and caches the configuration of every combination of known ID and modifier
+     * ahead of time, so that later lookups only read the cache.
+     */
+    public void preResolveConfigs() {
+        Snapshot current = snapshot;
+        List<String> configIds = new ArrayList<>(current.configsById.keySet());
+        configIds.add(null);
+        List<String> modifiers = new ArrayList<>(current.configsByModifier.keySet());
+        modifiers.remove(DEFAULT);
+        modifiers.add(null);
+        for (String configId : configIds) {
+            for (String modifier : modifiers) {
+                IConfig ret = current.resolveConfig(new ConfigKey(configId, modifier));
+                if (ret != null)
+                    current.resolvedConfigs.putIfAbsent(configId, modifier, ret);
+            }
+        }
+    }
+
+    /**
+     * Discards all resolved configurations, so that later lookups resolve against the current entries.
+     */
+    public synchronized void invalidateResolvedConfigs() {
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(current);
+        HoconConfigTypeManager owner = this.owner;
+        if (owner != null)
+            owner.onSnapshotChanged();
+    }
+
+    /**
+     * An immutable view of the entries of a HoconConfigManager at one point in time,
+     * together with the configurations resolved against exactly these entries.
+     */
+    final class Snapshot implements IConfigManager {
+        final Map<String, IConfig> configsById;
+        final Map<String, IConfig> configsByModifier;
+        private final ResolvedConfigCache resolvedConfigs = new ResolvedConfigCache();
+        // Rule out IDs and modifiers without an entry before any map is probed.
+        private final ConfigKeyFilter idFilter;
+        private final ConfigKeyFilter modifierFilter;
+
+        private Snapshot(Map<String, IConfig> configsById, Map<String, IConfig> configsByModifier) {
+            this.configsById = configsById;
+            this.configsByModifier = configsByModifier;
+            this.idFilter = new ConfigKeyFilter(configsById.keySet());
+            this.modifierFilter = new ConfigKeyFilter(configsByModifier.keySet());
+        }
+
+        /**
+         * Creates a snapshot of the same entries as the given one, with an empty cache.
+         */
+        private Snapshot(Snapshot entries) {
+            this.configsById = entries.configsById;
+            this.configsByModifier = entries.configsByModifier;
+            this.idFilter = entries.idFilter;
+            this.modifierFilter = entries.modifierFilter;
+        }
+
+        @Override
+        public String getConfigType() {
+            return configType;
+        }
+
+        @Override
+        public void addConfigByModifier(String modifier, IConfig config) {
+            throw new UnsupportedOperationException("Snapshot of " + configType + " is read only");
+        }
+
+        @Override
+        public void addConfigById(String configId, IConfig config) {
+            throw new UnsupportedOperationException("Snapshot of " + configType + " is read only");
+        }
+
+        /**
+         * Resolves against this snapshot only, using its cache.
+         */
+        @Override
+        public IConfig getConfig(IConfigurable configurable) {
+            return HoconConfigManager.this.getConfig(this, metrics, configurable);
+        }
+
+        /**
+         * Retrieves the configurations of the objects of a group of a grouped batch lookup
+         * into their positions of the batch, against this snapshot only.
+         *
+         * @param batch The batch holding the grouped objects, sorted by group.
+         * @param group The group of the objects of this type.
+         */
+        void getConfigs(ConfigBatch batch, int group) {
+            IConfigTypeMetrics metrics = HoconConfigManager.this.metrics;
+            for (int i = batch.getGroupStart(group), end = batch.getGroupEnd(group); i < end; i++) {
+                int position = batch.getGroupedPosition(i);
+                batch.set(position, HoconConfigManager.this.getConfig(this, metrics, (IConfigurable) batch.getRequest(position)));
+            }
+        }
+
+        @Override
+        public IConfig getConfigById(String configId) {
+            return configsById.get(configId);
+        }
+
+        @Override
+        public IConfig getConfigByModifier(String modifier) {
+            return configsByModifier.get(modifier);
+        }
+
+        /**
+         * Times the merge when metrics are on.
+         */
+        @Override
+        public void mergeConfig(IConfig ret, IConfigurable configurable, ConfigLevel level) {
+            IConfigTypeMetrics metrics = HoconConfigManager.this.metrics;
+            if (metrics == null) {
+                IConfigManager.super.mergeConfig(ret, configurable, level);
+                return;
+            }
+            long start = System.nanoTime();
+            IConfigManager.super.mergeConfig(ret, configurable, level);
+            metrics.onMerge(level, System.nanoTime() - start);
+        }
+
+        /**
+         * Resolves a configuration for a key like {@link #resolveConfig(IConfigurable)}, reusing
+         * the cached result of the pair if there is one, but without caching the result or
+         * reporting the merge to the metrics, for diffing the changes of a snapshot.
+         *
+         * @param key The ID and modifier to resolve.
+         * @return The resolved configuration, or null if not found.
+         */
+        IConfig resolveUnmetered(ConfigKey key) {
+            IConfig cached = resolvedConfigs.get(key.getConfigId(), key.getModifier());
+            if (cached != null)
+                return cached;
+            Snapshot entries = this;
+            return new IConfigManager() {
+                @Override
+                public String getConfigType() {
+                    return configType;
+                }
+
+                @Override
+                public void addConfigByModifier(String modifier, IConfig config) {
+                    entries.addConfigByModifier(modifier, config);
+                }
+
+                @Override
+                public void addConfigById(String configId, IConfig config) {
+                    entries.addConfigById(configId, config);
+                }
+
+                @Override
+                public IConfig getConfig(IConfigurable configurable) {
+                    return resolveConfig(configurable);
+                }
+
+                @Override
+                public IConfig getConfigById(String configId) {
+                    return entries.getConfigById(configId);
+                }
+
+                @Override
+                public IConfig getConfigByModifier(String modifier) {
+                    return entries.getConfigByModifier(modifier);
+                }
+            }.resolveConfig(key);
+        }
+
+        /**
+         * Returns the level a caller with the given ID and modifier resolves at, in the order of resolveConfig.
+         */
+        private ConfigLevel getLevel(String configId, String modifier) {
+            if (configId != null && configsById.containsKey(configId))
+                return ConfigLevel.ID;
+            if (modifier != null && configsByModifier.containsKey(modifier))
+                return ConfigLevel.MODIFIER;
+            return ConfigLevel.DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigMetrics;
+import free.servpp.config.IConfigTypeMetrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The HoconConfigMetrics class is the default IConfigMetrics implementation. It counts
+ * lookups per type and level, IDs and modifiers known to be absent, misses, merges and merge latency in striped LongAdder
+ * counters, so that concurrent lookups do not contend on a shared counter, and keeps
+ * the entry counts of every type. The counters can be read directly or over JMX:
+ * <pre>
+ * HoconConfigMetrics metrics = new HoconConfigMetrics();
+ * loader.getManager().setMetrics(metrics);
+ * metrics.register();
+ * </pre>
+ */
+public class HoconConfigMetrics implements IConfigMetrics, HoconConfigMetricsMXBean {
+    /**
+     * The object name used by {@link #register()}.
+     */
+    public static final String OBJECT_NAME = "free.servpp.config:type=HoconConfigMetrics";
+
+    // Bucket 0 is below 1us, bucket n is [2^(n-1), 2^n) us, the last one is open ended.
+    static final int HISTOGRAM_BUCKETS = 24;
+
+    private static final IConfigManager.ConfigLevel[] LEVELS = IConfigManager.ConfigLevel.values();
+
+    private final Map<String, TypeMetrics> types = new ConcurrentHashMap<>();
+
+    @Override
+    public IConfigTypeMetrics forType(String configType) {
+        return types.computeIfAbsent(configType, t -> new TypeMetrics());
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME}.
+     *
+     * @return The name the metrics were registered under.
+     * @throws JMException if the metrics cannot be registered, for example because the name is taken.
+     */
+    public ObjectName register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public Map<String, Long> getLookups() {
+        return sumByType(m -> {
+            long sum = 0;
+            for (LongAdder lookups : m.lookups) {
+                sum += lookups.sum();
+            }
+            return sum;
+        });
+    }
+
+    @Override
+    public Map<String, Long> getLookupsByLevel() {
+        Map<String, Long> ret = new TreeMap<>();
+        for (IConfigManager.ConfigLevel level : LEVELS) {
+            long sum = 0;
+            for (TypeMetrics m : types.values()) {
+                sum += m.lookups[level.ordinal()].sum();
+            }
+            ret.put(level.name(), sum);
+        }
+        return ret;
+    }
+
+    @Override
+    public Map<String, Long> getAbsentKeysByLevel() {
+        Map<String, Long> ret = new TreeMap<>();
+        for (IConfigManager.ConfigLevel level : LEVELS) {
+            if (level == IConfigManager.ConfigLevel.DEFAULT)
+                continue;
+            long sum = 0;
+            for (TypeMetrics m : types.values()) {
+                sum += m.absentKeys[level.ordinal()].sum();
+            }
+            ret.put(level.name(), sum);
+        }
+        return ret;
+    }
+
+    @Override
+    public Map<String, Long> getUncachedLookups() {
+        return sumByType(m -> m.uncachedLookups.sum());
+    }
+
+    @Override
+    public Map<String, Long> getMisses() {
+        return sumByType(m -> m.misses.sum());
+    }
+
+    @Override
+    public Map<String, Long> getMerges() {
+        return sumByType(m -> m.merges.sum());
+    }
+
+    @Override
+    public Map<String, Long> getMergeNanos() {
+        return sumByType(m -> m.mergeNanos.sum());
+    }
+
+    @Override
+    public long[] getMergeLatencyHistogram() {
+        long[] ret = new long[HISTOGRAM_BUCKETS];
+        for (TypeMetrics m : types.values()) {
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                ret[i] += m.mergeLatency[i].sum();
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public Map<String, Integer> getIdEntries() {
+        Map<String, Integer> ret = new TreeMap<>();
+        types.forEach((type, m) -> ret.put(type, m.configIds));
+        return ret;
+    }
+
+    @Override
+    public Map<String, Integer> getModifierEntries() {
+        Map<String, Integer> ret = new TreeMap<>();
+        types.forEach((type, m) -> ret.put(type, m.modifiers));
+        return ret;
+    }
+
+    @Override
+    public void reset() {
+        for (TypeMetrics m : types.values()) {
+            m.reset();
+        }
+    }
+
+    private Map<String, Long> sumByType(Function<TypeMetrics, Long> counter) {
+        Map<String, Long> ret = new TreeMap<>();
+        types.forEach((type, m) -> ret.put(type, counter.apply(m)));
+        return ret;
+    }
+
+    /**
+     * Returns the histogram bucket of a merge that took the given time.
+     */
+    static int bucketOf(long nanos) {
+        return Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000));
+    }
+
+    /**
+     * The counters of one configuration type.
+     */
+    private static final class TypeMetrics implements IConfigTypeMetrics {
+        private final LongAdder[] lookups = newAdders(LEVELS.length);
+        private final LongAdder[] absentKeys = newAdders(LEVELS.length);
+        private final LongAdder uncachedLookups = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder merges = new LongAdder();
+        private final LongAdder mergeNanos = new LongAdder();
+        private final LongAdder[] mergeLatency = newAdders(HISTOGRAM_BUCKETS);
+        private volatile int configIds;
+        private volatile int modifiers;
+
+        @Override
+        public void onLookup(IConfigManager.ConfigLevel level, boolean cached) {
+            lookups[level.ordinal()].increment();
+            if (!cached)
+                uncachedLookups.increment();
+        }
+
+        @Override
+        public void onMiss() {
+            misses.increment();
+        }
+
+        @Override
+        public void onAbsentKey(IConfigManager.ConfigLevel level) {
+            absentKeys[level.ordinal()].increment();
+        }
+
+        @Override
+        public void onMerge(IConfigManager.ConfigLevel level, long nanos) {
+            merges.increment();
+            mergeNanos.add(nanos);
+            mergeLatency[bucketOf(nanos)].increment();
+        }
+
+        @Override
+        public void onEntries(int configIds, int modifiers) {
+            this.configIds = configIds;
+            this.modifiers = modifiers;
+        }
+
+        private void reset() {
+            for (LongAdder adder : lookups) {
+                adder.reset();
+            }
+            for (LongAdder adder : absentKeys) {
+                adder.reset();
+            }
+            uncachedLookups.reset();
+            misses.reset();
+            merges.reset();
+            mergeNanos.reset();
+            for (LongAdder adder : mergeLatency) {
+                adder.reset();
+            }
+        }
+
+        private static LongAdder[] newAdders(int count) {
+            LongAdder[] ret = new LongAdder[count];
+            for (int i = 0; i < count; i++) {
+                ret[i] = new LongAdder();
+            }
+            return ret;
+        }
+    }
+}
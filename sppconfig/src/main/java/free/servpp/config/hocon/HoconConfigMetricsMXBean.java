@@ -0,0 +1,88 @@
+package free.servpp.config.hocon;
+
+import java.util.Map;
+
+/**
+ * The HoconConfigMetricsMXBean interface exposes the counters of HoconConfigMetrics over JMX.
+ * Maps are keyed by configuration type unless stated otherwise.
+ */
+public interface HoconConfigMetricsMXBean {
+
+    /**
+     * Retrieves the number of lookups that found a configuration.
+     *
+     * @return The lookups per type.
+     */
+    Map<String, Long> getLookups();
+
+    /**
+     * Retrieves the number of lookups that found a configuration, per level over all types.
+     *
+     * @return The lookups keyed by ID, MODIFIER and DEFAULT.
+     */
+    Map<String, Long> getLookupsByLevel();
+
+    /**
+     * Retrieves the number of lookups whose ID or modifier was known to have no entry and
+     * skipped the probes of that level, per level over all types.
+     *
+     * @return The skipped levels keyed by ID and MODIFIER.
+     */
+    Map<String, Long> getAbsentKeysByLevel();
+
+    /**
+     * Retrieves the number of lookups that had to resolve the configuration instead of reading the cache.
+     *
+     * @return The uncached lookups per type.
+     */
+    Map<String, Long> getUncachedLookups();
+
+    /**
+     * Retrieves the number of lookups that found no configuration at any level.
+     *
+     * @return The misses per type.
+     */
+    Map<String, Long> getMisses();
+
+    /**
+     * Retrieves the number of merges of configurations with their fallbacks.
+     *
+     * @return The merges per type.
+     */
+    Map<String, Long> getMerges();
+
+    /**
+     * Retrieves the total time spent merging, in nanoseconds.
+     *
+     * @return The merge time per type.
+     */
+    Map<String, Long> getMergeNanos();
+
+    /**
+     * Retrieves the merge latency histogram over all types. Bucket 0 counts merges below
+     * one microsecond, bucket n those from 2^(n-1) up to 2^n microseconds; the last bucket
+     * counts everything above.
+     *
+     * @return The merge counts per bucket.
+     */
+    long[] getMergeLatencyHistogram();
+
+    /**
+     * Retrieves the number of entries registered by ID.
+     *
+     * @return The ID entries per type.
+     */
+    Map<String, Integer> getIdEntries();
+
+    /**
+     * Retrieves the number of entries registered by modifier, including the default one.
+     *
+     * @return The modifier entries per type.
+     */
+    Map<String, Integer> getModifierEntries();
+
+    /**
+     * Resets all counters. Entry counts are kept.
+     */
+    void reset();
+}
@@ -0,0 +1,526 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.ConfigBatch;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigMetrics;
+import free.servpp.config.IConfigurable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The HoconConfigTypeManager class is responsible for managing multiple
+ * HOCON configuration managers, each associated with a different configuration
+ * type. It allows adding configurations to these managers and building them
+ * using a configurable builder.
+ *
+ * A manager can be replaced as a whole while the configuration is in use; readers
+ * should therefore look the manager up by type, or by the handle of the type, rather than keep
+ * a reference to it.
+ *
+ * @author lidong
+ * @date 2024-08-02
+ * @version 1.0
+ */
+public class HoconConfigTypeManager {
+    // The HoconConfigManager instances, in slots indexed by the handles of their configuration type.
+    private final ConfigTypeRegistry registry = new ConfigTypeRegistry();
+
+    // The builder used to create IConfigurable instances from a given type and Config.
+    private IConfigurableBuilder builder;
+
+    // The metrics installed on every manager, or null if metrics are off.
+    private volatile IConfigMetrics metrics;
+
+    // Counts the changes of the snapshots of all types in steps of two; the number of the next
+    // generation. It is odd while several managers are being replaced together, like a seqlock.
+    private final AtomicLong version = new AtomicLong();
+    // The generation built at the current version, or an older one to be rebuilt.
+    private volatile ConfigGeneration generation;
+
+    // Delivers the changes of all types to subscribers.
+    private final ConfigChangePublisher publisher = new ConfigChangePublisher();
+
+    // Loads the manager of a type on its first use, or null if all types are loaded up front.
+    private volatile TypeLoader typeLoader;
+    // The snapshots of types loaded on their first use, as first loaded, for generations
+    // acquired while the type was still pending.
+    private final Map<String, HoconConfigManager.Snapshot> loadedSnapshots = new ConcurrentHashMap<>();
+
+    // The group key of the objects of a batch lookup whose type has no entries.
+    private static final Object NO_ENTRIES = new Object();
+
+    /**
+     * The TypeLoader interface loads the configurations of a single type on demand.
+     */
+    interface TypeLoader {
+        /**
+         * Loads and registers the manager of the given type.
+         *
+         * @param type The configuration type.
+         * @return The registered manager, or null if the type has no pending configurations.
+         */
+        HoconConfigManager loadType(String type);
+
+        /**
+         * Retrieves the types that have configurations which are not loaded yet. Called by
+         * readers building a generation, so it must not block on a load in progress.
+         *
+         * @return An immutable set of the pending types.
+         */
+        Set<String> getPendingTypes();
+    }
+
+    /**
+     * Sets the loader of types that are loaded on their first use.
+     *
+     * @param typeLoader The loader to use, or null if all types are loaded up front.
+     */
+    void setTypeLoader(TypeLoader typeLoader) {
+        this.typeLoader = typeLoader;
+    }
+
+    /**
+     * Sets the builder used to create IConfigurable instances.
+     *
+     * @param builder The builder to use for creating configurable objects.
+     * @return The current instance of HoconConfigTypeManager for method chaining.
+     */
+    public HoconConfigTypeManager setBuilder(IConfigurableBuilder builder) {
+        this.builder = builder;
+        return this;
+    }
+
+    /**
+     * Sets the metrics that record lookups, merges and entry counts of every type,
+     * including managers registered later.
+     *
+     * @param metrics The metrics to use, or null to turn metrics off.
+     * @return The current instance of HoconConfigTypeManager for method chaining.
+     */
+    public synchronized HoconConfigTypeManager setMetrics(IConfigMetrics metrics) {
+        this.metrics = metrics;
+        for (HoconConfigManager manager : registry.getManagers()) {
+            attachMetrics(manager);
+        }
+        return this;
+    }
+
+    private IConfigMetrics attachMetrics(HoconConfigManager manager) {
+        IConfigMetrics metrics;
+        // Attaching may race with setMetrics on a manager created without the lock; attach again if it did
+        do {
+            metrics = this.metrics;
+            manager.setMetrics(metrics == null ? null : metrics.forType(manager.getConfigType()));
+        } while (metrics != this.metrics);
+        return metrics;
+    }
+
+    /**
+     * Acquires the current generation of the entries of all types. A request should acquire
+     * a generation once and resolve all its types from it, so that its reads are consistent
+     * even while configurations change. Acquiring is a pair of volatile reads unless the
+     * entries changed since the last acquisition, in which case a new generation is built.
+     * Managers replaced together by {@link #replaceManagers(Map)} are never seen half
+     * replaced: a generation is not built while they are being installed.
+     *
+     * @return The current generation.
+     */
+    public ConfigGeneration acquireGeneration() {
+        ConfigGeneration ret = generation;
+        long current = version.get();
+        while (ret == null || ret.getGeneration() != current) {
+            if ((current & 1) != 0) {
+                // Managers are being replaced together; wait until all of them are installed
+                Thread.onSpinWait();
+                current = version.get();
+                continue;
+            }
+            Map<String, HoconConfigManager.Snapshot> snapshots = new HashMap<>();
+            for (HoconConfigManager manager : registry.getManagers()) {
+                snapshots.put(manager.getConfigType(), manager.getSnapshot());
+            }
+            TypeLoader typeLoader = this.typeLoader;
+            Set<String> pendingTypes = typeLoader == null ? Collections.emptySet() : typeLoader.getPendingTypes();
+            // A change during the build may have been missed; build again until none happened
+            long after = version.get();
+            if (after == current) {
+                ret = new ConfigGeneration(current, snapshots, pendingTypes, this);
+                generation = ret;
+            }
+            current = after;
+        }
+        return ret;
+    }
+
+    /**
+     * Notes that the entries of a type changed, so that the next acquisition builds a new generation.
+     * The version moves in steps of two, so that it keeps its parity.
+     */
+    void onSnapshotChanged() {
+        version.addAndGet(2);
+    }
+
+    /**
+     * Returns the snapshot of a type that was pending in a lazy load when a generation was
+     * acquired: the snapshot the type was first loaded with, loading it now if it is still
+     * pending, so that every such generation reads the same entries.
+     *
+     * @param type The configuration type.
+     * @return The snapshot of the type as first loaded.
+     */
+    HoconConfigManager.Snapshot getLoadedSnapshot(String type) {
+        HoconConfigManager.Snapshot snapshot = loadedSnapshots.get(type);
+        if (snapshot == null) {
+            HoconConfigManager manager = getHoconConfigManager(type);
+            snapshot = loadedSnapshots.computeIfAbsent(type, t -> manager.getSnapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Subscribes to the changes of the configurations selected by a filter. Changes are
+     * delivered whenever entries are added to a manager or a manager is replaced, for
+     * example by a reload. Each change is diffed once for all subscribers, and delivered
+     * asynchronously through a publisher of its own to every subscriber. A subscriber whose
+     * buffer overflows receives onError and is unsubscribed; it should re-read the
+     * configurations it depends on and subscribe again.
+     *
+     * @param filter     The changes to deliver.
+     * @param subscriber The subscriber to deliver them to.
+     */
+    public void subscribe(ConfigChangeFilter filter, Flow.Subscriber<? super ConfigChange> subscriber) {
+        publisher.subscribe(filter, subscriber);
+    }
+
+    /**
+     * Adds a list of configuration objects to the manager associated with the specified type.
+     * This method retrieves or creates the appropriate HoconConfigManager for the type
+     * and builds configurations to be managed.
+     *
+     * @param type The type of configuration to add.
+     * @param managerList A list of Config objects to be added to the manager.
+     */
+    public void addManagers(String type, List<Config> managerList) {
+        HoconConfigManager manager = getHoconConfigManager(type);
+        buildHoconConfigs(type, managerList, manager);
+    }
+
+    /**
+     * Creates a new HoconConfigManager for the specified type holding the given configurations.
+     * The manager is not registered; use {@link #replaceManager(String, HoconConfigManager)} to install it.
+     *
+     * @param type The type of configuration.
+     * @param managerList A list of Config objects to be added to the new manager.
+     * @return The new HoconConfigManager.
+     */
+    public HoconConfigManager createManager(String type, List<Config> managerList) {
+        HoconConfigManager manager = new HoconConfigManager(type);
+        buildHoconConfigs(type, managerList, manager);
+        return manager;
+    }
+
+    /**
+     * Adds entries that were already classified by the loader to the manager associated
+     * with the specified type, without building configurables for them again.
+     *
+     * @param type The type of configuration to add.
+     * @param entries The classified entries to be added to the manager.
+     */
+    void addClassifiedConfigs(String type, List<ClassifiedConfig> entries) {
+        addClassifiedConfigs(entries, getHoconConfigManager(type));
+    }
+
+    /**
+     * Creates a new HoconConfigManager for the specified type holding entries that were already
+     * classified by the loader. The manager is not registered.
+     *
+     * @param type The type of configuration.
+     * @param entries The classified entries to be added to the new manager.
+     * @return The new HoconConfigManager.
+     */
+    HoconConfigManager createClassifiedManager(String type, List<ClassifiedConfig> entries) {
+        HoconConfigManager manager = new HoconConfigManager(type);
+        addClassifiedConfigs(entries, manager);
+        return manager;
+    }
+
+    private void addClassifiedConfigs(List<ClassifiedConfig> entries, HoconConfigManager manager) {
+        HoconConfigEvents.AddManagerEvent event = new HoconConfigEvents.AddManagerEvent();
+        event.begin();
+        Map<String, IConfig> configsById = new HashMap<>();
+        Map<String, IConfig> configsByModifier = new HashMap<>();
+        for (ClassifiedConfig entry : entries) {
+            HoconConfigImpl hoconConfig = entry.toHoconConfig();
+            if (entry.getLevel() == IConfigManager.ConfigLevel.ID) {
+                configsById.put(entry.getKey(), hoconConfig);
+            } else {
+                configsByModifier.put(entry.getKey(), hoconConfig);
+            }
+        }
+        manager.addConfigs(configsById, configsByModifier);
+        commitAddManagerEvent(event, manager, configsById, configsByModifier);
+    }
+
+    private static void commitAddManagerEvent(HoconConfigEvents.AddManagerEvent event, HoconConfigManager manager,
+                                              Map<String, IConfig> configsById, Map<String, IConfig> configsByModifier) {
+        if (event.shouldCommit()) {
+            event.configType = manager.getConfigType();
+            event.idEntries = configsById.size();
+            event.modifierEntries = configsByModifier.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Installs the given manager for the specified type, replacing the current one atomically.
+     * Readers are never blocked; they see either the old or the new manager.
+     *
+     * @param type The configuration type.
+     * @param manager The HoconConfigManager to install.
+     */
+    public void replaceManager(String type, HoconConfigManager manager) {
+        replaceManagers(Collections.singletonMap(type, manager));
+    }
+
+    /**
+     * Installs the given managers together, replacing the current ones. A type mapped to null
+     * is removed. Readers looking up single types are never blocked and see either the old or
+     * the new manager of each type; a generation acquired meanwhile waits until all managers
+     * are installed, so it holds either all old or all new managers.
+     *
+     * @param managers The managers to install by type, or null for types to remove.
+     */
+    public synchronized void replaceManagers(Map<String, HoconConfigManager> managers) {
+        for (HoconConfigManager manager : managers.values()) {
+            if (manager != null) {
+                attachMetrics(manager);
+                manager.setPublisher(publisher);
+                manager.setOwner(this);
+            }
+        }
+        Map<String, HoconConfigManager> old = new HashMap<>();
+        // The version is odd while the managers are swapped, so that no generation is built from a mix
+        version.incrementAndGet();
+        try {
+            for (Map.Entry<String, HoconConfigManager> entry : managers.entrySet()) {
+                ConfigTypeHandle handle = entry.getValue() == null ? registry.findHandle(entry.getKey()) : registry.handleOf(entry.getKey());
+                if (handle != null)
+                    old.put(entry.getKey(), registry.getAndSet(handle, entry.getValue()));
+            }
+        } finally {
+            version.incrementAndGet();
+        }
+        if (!publisher.hasSubscriptions())
+            return;
+        for (Map.Entry<String, HoconConfigManager> entry : old.entrySet()) {
+            String type = entry.getKey();
+            HoconConfigManager before = entry.getValue();
+            HoconConfigManager after = managers.get(type);
+            if (before == after)
+                continue;
+            publisher.publish(type, before == null ? null : before.getSnapshot(),
+                    (after == null ? new HoconConfigManager(type) : after).getSnapshot());
+        }
+    }
+
+    /**
+     * Resolves the configurations of every known ID and modifier of all types ahead of time,
+     * in parallel across types.
+     */
+    public void preResolveConfigs() {
+        registry.getManagers().parallelStream().forEach(HoconConfigManager::preResolveConfigs);
+    }
+
+    /**
+     * Builds HoconConfigs for the given Config objects and adds them to the provided manager
+     * in a single update.
+     *
+     * @param type The type of configuration being built.
+     * @param managerList The Config objects to be used in creating the HoconConfigs.
+     * @param manager The HoconConfigManager where the configurations will be added.
+     */
+    private void buildHoconConfigs(String type, List<Config> managerList, HoconConfigManager manager) {
+        HoconConfigEvents.AddManagerEvent event = new HoconConfigEvents.AddManagerEvent();
+        event.begin();
+        Map<String, IConfig> configsById = new HashMap<>();
+        Map<String, IConfig> configsByModifier = new HashMap<>();
+        for (Config config : managerList) {
+            buildHoconConfig(type, config, configsById, configsByModifier);
+        }
+        manager.addConfigs(configsById, configsByModifier);
+        commitAddManagerEvent(event, manager, configsById, configsByModifier);
+    }
+
+    /**
+     * Builds a HoconConfig. The configuration is created based on the type and the given
+     * Config object. The configuration is then associated with either a config ID or a modifier.
+     *
+     * @param type The type of configuration being built.
+     * @param config The Config object to be used in creating the HoconConfig.
+     * @param configsById The configurations to be added by ID.
+     * @param configsByModifier The configurations to be added by modifier.
+     */
+    private void buildHoconConfig(String type, Config config, Map<String, IConfig> configsById, Map<String, IConfig> configsByModifier) {
+        IConfigurable configurable = builder.build(type, config);
+        String configId = configurable.getConfigId();
+        String modifier = configurable.getModifier();
+        HoconConfigImpl hoconConfig = new HoconConfigImpl(config);
+
+        if (configId != null) {
+            configsById.put(configId, hoconConfig);
+        } else if (modifier != null) {
+            configsByModifier.put(modifier, hoconConfig);
+        } else {
+            configsByModifier.put(IConfigManager.DEFAULT, hoconConfig);
+        }
+    }
+
+    /**
+     * Retrieves the handle of the specified type, registering the type if it is new.
+     * Callers that look up the manager of a type repeatedly should resolve its handle once
+     * and use {@link #getHoconConfigManager(ConfigTypeHandle)}, which does not hash the type.
+     * Handles are never released, and a type manager holds at most 262144 of them, so
+     * handles are meant for a fixed set of types rather than for names taken from requests.
+     *
+     * @param type The configuration type.
+     * @return The handle of the type.
+     */
+    public ConfigTypeHandle getTypeHandle(String type) {
+        return registry.handleOf(type);
+    }
+
+    /**
+     * Retrieves the HoconConfigManager associated with the specified type.
+     * If no manager exists for the type, the configurations of the type are loaded if
+     * they are pending in a lazy load; otherwise a new one is created and registered.
+     *
+     * @param type The configuration type.
+     * @return The HoconConfigManager instance associated with the type.
+     */
+    public HoconConfigManager getHoconConfigManager(String type) {
+        HoconConfigManager manager = registry.get(type);
+        if (manager != null)
+            return manager;
+        // The type is only registered once a manager is installed for it
+        manager = loadType(type);
+        return manager != null ? manager : createManager(registry.handleOf(type));
+    }
+
+    /**
+     * Retrieves the HoconConfigManager associated with the type of the specified handle.
+     * An existing manager is found with an array read; a missing one is loaded or created
+     * as in {@link #getHoconConfigManager(String)}, without taking a lock.
+     *
+     * @param handle A handle obtained from {@link #getTypeHandle(String)} of this manager.
+     * @return The HoconConfigManager instance associated with the type.
+     */
+    public HoconConfigManager getHoconConfigManager(ConfigTypeHandle handle) {
+        HoconConfigManager manager = registry.get(handle);
+        if (manager != null)
+            return manager;
+        if (handle.getRegistry() != registry)
+            throw new IllegalArgumentException("The handle " + handle + " belongs to another type manager");
+
+        manager = loadType(handle.getType());
+        return manager != null ? manager : createManager(handle);
+    }
+
+    /**
+     * Loads a type pending in a lazy load, without holding the lock of this manager, which
+     * reloads take after the loader's.
+     *
+     * @param type The configuration type.
+     * @return The loaded manager, or null if the type is not pending.
+     */
+    private HoconConfigManager loadType(String type) {
+        TypeLoader typeLoader = this.typeLoader;
+        if (typeLoader == null)
+            return null;
+        HoconConfigManager manager = typeLoader.loadType(type);
+        if (manager != null)
+            loadedSnapshots.putIfAbsent(type, manager.getSnapshot());
+        return manager;
+    }
+
+    /**
+     * Creates and installs an empty manager for a type that has none, unless another thread
+     * installs one first. Its metrics are attached before it can be looked up.
+     *
+     * @param handle The handle of the type.
+     * @return The installed manager.
+     */
+    private HoconConfigManager createManager(ConfigTypeHandle handle) {
+        HoconConfigManager created = new HoconConfigManager(handle.getType());
+        created.setPublisher(publisher);
+        created.setOwner(this);
+        IConfigMetrics attached = attachMetrics(created);
+        if (!registry.compareAndSet(handle, null, created))
+            return registry.get(handle);
+        // setMetrics may have changed the metrics before it could see the new manager
+        if (attached != this.metrics)
+            attachMetrics(created);
+        onSnapshotChanged();
+        return created;
+    }
+
+    /**
+     * Retrieves the configurations of several IConfigurable objects of any types at once.
+     * All of them are resolved against one generation, so a batch never mixes versions of
+     * different types. The objects are grouped by type in the scratch state of the batch,
+     * so that every type resolves all of its objects in one pass and a warm batch lookup
+     * does not allocate. The list is only iterated, so it need not support fast positional
+     * access.
+     *
+     * A type without entries resolves to null; unlike {@link #getHoconConfigManager(String)},
+     * the lookup never creates or registers a manager.
+     *
+     * @param configurables The objects to retrieve configurations for.
+     * @param typeOf Returns the configuration type of an object.
+     * @param batch The batch to fill; it is cleared first.
+     * @return The batch, holding the configuration of every object at its position.
+     */
+    public <T extends IConfigurable> ConfigBatch getConfigs(List<T> configurables, Function<? super T, String> typeOf, ConfigBatch batch) {
+        batch.clear();
+        ConfigGeneration generation = acquireGeneration();
+        for (T configurable : configurables) {
+            HoconConfigManager.Snapshot snapshot = generation.getSnapshot(typeOf.apply(configurable));
+            batch.addToGroup(snapshot != null ? snapshot : NO_ENTRIES, configurable);
+        }
+        // Sizes the batch up front, since the groups fill it out of order
+        int size = configurables.size();
+        if (size > 0)
+            batch.set(size - 1, null);
+        int groups = batch.sortGroups();
+        for (int group = 0; group < groups; group++) {
+            Object key = batch.getGroupKey(group);
+            // The positions of types without entries are left null
+            if (key != NO_ENTRIES)
+                ((HoconConfigManager.Snapshot) key).getConfigs(batch, group);
+        }
+        return batch;
+    }
+
+    /**
+     * Retrieves the configuration types that have a manager, together with the types
+     * whose configurations are pending in a lazy load.
+     *
+     * @return An unmodifiable set of the configuration types.
+     */
+    public Set<String> getConfigTypes() {
+        TypeLoader typeLoader = this.typeLoader;
+        Set<String> types = registry.getTypes();
+        if (typeLoader != null)
+            types.addAll(typeLoader.getPendingTypes());
+        return Collections.unmodifiableSet(types);
+    }
+}
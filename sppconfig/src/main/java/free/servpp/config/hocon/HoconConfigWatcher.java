@@ -0,0 +1,214 @@
+package free.servpp.config.hocon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The HoconConfigWatcher class watches the directories and single files loaded by a
+ * HoconConfigLoader and reloads the files that change. The directory of a single file
+ * is watched for that file only. Events are collected until the directories have
+ * been quiet for the debounce period, so a burst of edits causes a single reload of
+ * just the files involved.
+ *
+ * The watcher runs on its own daemon thread until it is closed.
+ */
+public class HoconConfigWatcher implements Closeable {
+    private final HoconConfigLoader loader;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    // The watched directories by their watch keys; subdirectories are registered as they appear.
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    // The single files watched, by the watch key of their directory; other files of those directories are ignored.
+    private final Map<WatchKey, Set<Path>> files = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile Consumer<Throwable> errorHandler = HoconConfigWatcher::logError;
+
+    /**
+     * Constructs a HoconConfigWatcher for the directories and files loaded so far by the given loader.
+     *
+     * @param loader         the loader whose sources are watched and which reloads changed files
+     * @param debounceMillis how long the directories must stay quiet before a reload starts
+     * @throws IOException if the directories cannot be watched
+     */
+    public HoconConfigWatcher(HoconConfigLoader loader, long debounceMillis) throws IOException {
+        this.loader = loader;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (File directory : loader.getLoadedDirectories()) {
+            register(directory.toPath());
+        }
+        for (File file : loader.getLoadedFiles()) {
+            registerFile(file.toPath());
+        }
+        thread = new Thread(this::run, "hocon-config-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Sets the handler for errors raised by a reload. A failed reload leaves the
+     * current configuration in place; by default the error is logged as a warning
+     * through the System.Logger of this class.
+     *
+     * @param errorHandler the handler receiving reload errors
+     * @return the current instance of HoconConfigWatcher for method chaining
+     */
+    public HoconConfigWatcher setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * Starts watching.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops watching. A reload in progress is completed.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<File> changed = new LinkedHashSet<>();
+                collectChanges(watchService.take(), changed);
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collectChanges(key, changed);
+                }
+                try {
+                    loader.reload(changed);
+                } catch (IOException | RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The watcher was closed
+        }
+    }
+
+    /**
+     * Adds the files reported by a watch key to the set of changed files. New directories are
+     * registered and reported as a whole; after an overflow the whole watched directory is reported.
+     *
+     * @param key     the signalled watch key
+     * @param changed the set to which changed files are added
+     */
+    private void collectChanges(WatchKey key, Set<File> changed) {
+        Path directory = directories.get(key);
+        if (directory == null) {
+            Set<Path> watched = files.get(key);
+            if (watched == null)
+                key.cancel();
+            else
+                collectFileChanges(key, watched, changed);
+            return;
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(directory.toFile());
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            // Changes inside a subdirectory are reported by the subdirectory itself
+            if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY && Files.isDirectory(path))
+                continue;
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    errorHandler.accept(e);
+                }
+            }
+            changed.add(path.toFile());
+        }
+        if (!key.reset())
+            directories.remove(key);
+    }
+
+    /**
+     * Adds the watched single files reported by a watch key to the set of changed files.
+     * After an overflow all watched files of the directory are reported.
+     *
+     * @param key     the signalled watch key
+     * @param watched the watched files of the directory of the key
+     * @param changed the set to which changed files are added
+     */
+    private void collectFileChanges(WatchKey key, Set<Path> watched, Set<File> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path path : watched) {
+                    changed.add(path.toFile());
+                }
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (watched.contains(path))
+                changed.add(path.toFile());
+        }
+        if (!key.reset())
+            files.remove(key);
+    }
+
+    /**
+     * Registers a directory and all its subdirectories with the watch service.
+     *
+     * @param root the directory to register
+     * @throws IOException if a directory cannot be registered
+     */
+    private void register(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, path);
+            }
+        }
+    }
+
+    /**
+     * Registers the directory of a single file with the watch service, unless the whole
+     * directory is watched already.
+     *
+     * @param file the file to watch
+     * @throws IOException if the directory cannot be registered
+     */
+    private void registerFile(Path file) throws IOException {
+        Path directory = file.getParent();
+        if (directory == null)
+            directory = file.toAbsolutePath().getParent();
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        if (!directories.containsKey(key))
+            files.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(directory.resolve(file.getFileName()));
+    }
+
+    private static void logError(Throwable e) {
+        System.getLogger(HoconConfigWatcher.class.getName())
+                .log(System.Logger.Level.WARNING, "Reloading changed configuration files failed", e);
+    }
+}
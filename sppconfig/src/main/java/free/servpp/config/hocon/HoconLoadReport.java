@@ -0,0 +1,75 @@
+package free.servpp.config.hocon;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HoconLoadReport class records the timings of one HoconConfigLoader load:
+ * the wall-clock time of the whole load and the parse time of every file, in load order.
+ * When files are parsed concurrently the sum of the parse times exceeds the wall-clock time.
+ */
+public class HoconLoadReport {
+    private final Map<String, Long> parseNanosByFile = new LinkedHashMap<>();
+    private long wallClockNanos;
+
+    /**
+     * Records the parse time of a file.
+     *
+     * @param file       the path of the parsed file
+     * @param parseNanos the time taken to parse it, in nanoseconds
+     */
+    void addParse(String file, long parseNanos) {
+        parseNanosByFile.put(file, parseNanos);
+    }
+
+    void setWallClockNanos(long wallClockNanos) {
+        this.wallClockNanos = wallClockNanos;
+    }
+
+    /**
+     * Returns the wall-clock time of the load, from the start of the directory walk
+     * until all configurations were added to the manager.
+     *
+     * @return the wall-clock time in nanoseconds
+     */
+    public long getWallClockNanos() {
+        return wallClockNanos;
+    }
+
+    /**
+     * Returns the parse time of every loaded file, in load order.
+     *
+     * @return an unmodifiable map from file path to parse time in nanoseconds
+     */
+    public Map<String, Long> getParseNanosByFile() {
+        return Collections.unmodifiableMap(parseNanosByFile);
+    }
+
+    /**
+     * Returns the sum of the parse times of all loaded files.
+     *
+     * @return the total parse time in nanoseconds
+     */
+    public long getTotalParseNanos() {
+        long total = 0;
+        for (long nanos : parseNanosByFile.values()) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Loaded ").append(parseNanosByFile.size()).append(" files in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(wallClockNanos)).append(" ms (parse total ")
+                .append(TimeUnit.NANOSECONDS.toMillis(getTotalParseNanos())).append(" ms)");
+        for (Map.Entry<String, Long> entry : parseNanosByFile.entrySet()) {
+            sb.append("\n  ").append(entry.getKey()).append(": ")
+                    .append(TimeUnit.NANOSECONDS.toMicros(entry.getValue())).append(" us");
+        }
+        return sb.toString();
+    }
+}
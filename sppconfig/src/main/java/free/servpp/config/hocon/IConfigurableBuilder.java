@@ -24,4 +24,16 @@ public interface IConfigurableBuilder {
      * @return An IConfigurable instance constructed from the provided type and config.
      */
     IConfigurable build(String type, Config config);
+
+    /**
+     * Returns a fingerprint of how this builder classifies configurations. It is part of the
+     * hash a compiled configuration file is checked against, so a builder whose behavior
+     * depends on more than its class, such as declared paths, returns a value that changes
+     * with that state.
+     *
+     * @return The fingerprint of the builder; by default its class name.
+     */
+    default String getFingerprint() {
+        return getClass().getName();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,410 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MappedConfig class is a read-only configuration whose values stay in a file written by
+ * {@link SharedConfigFile} and memory-mapped by every process that reads it. Nothing but the
+ * offsets of its entries is held on the heap.
+ *
+ * A configuration is a stack of layers, each an entry of the file: a flattened, sorted array of
+ * leaf records. A value is looked up in the first layer that has it, with the semantics of
+ * {@link Config#withFallback}: a layer hides the same path of later layers, every path below it,
+ * and every shorter path it lies below. Paths are compared as UTF-8 bytes against the mapped
+ * region, so a lookup decodes nothing but the value it returns. As in {@link FlatConfig}, a null
+ * value is kept as a tombstone leaf, which hides the values of later layers but has no value itself.
+ *
+ * Like {@link FlatConfig}, a value can also be read by the index of its leaf obtained once with
+ * {@link #indexOf(String)}; the index is valid for every configuration of the same file.
+ */
+public final class MappedConfig {
+    static final int LONG = 0;
+    static final int DOUBLE = 1;
+    static final int BOOLEAN = 2;
+    static final int STRING = 3;
+    static final int LIST = 4;
+    static final int NULL = 5;
+
+    // The size of a leaf record: the offset of its path, its kind and its payload.
+    static final int RECORD_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    // The offsets of the entries making up this configuration, the first one taking precedence.
+    private final int[] layers;
+    private final String description;
+
+    MappedConfig(ByteBuffer buffer, int[] layers, String description) {
+        this.buffer = buffer;
+        this.layers = layers;
+        this.description = description;
+    }
+
+    /**
+     * Merges this configuration with a fallback of the same file, with the semantics of
+     * {@link Config#withFallback}. The merge only stacks the layers; no value is copied.
+     *
+     * @param fallback the configuration providing values missing here
+     * @return the merged configuration
+     * @throws IllegalArgumentException if the fallback is mapped from another file
+     */
+    public MappedConfig withFallback(MappedConfig fallback) {
+        if (fallback.buffer != buffer)
+            throw new IllegalArgumentException("Cannot merge " + description + " with " + fallback.description);
+        int[] merged = new int[layers.length + fallback.layers.length];
+        System.arraycopy(layers, 0, merged, 0, layers.length);
+        System.arraycopy(fallback.layers, 0, merged, layers.length, fallback.layers.length);
+        return new MappedConfig(buffer, merged, description);
+    }
+
+    /**
+     * Returns the index of a leaf path, to be used with the index-based getters.
+     *
+     * @param path the full path of a leaf
+     * @return the index of the leaf, or a negative value if there is no such leaf
+     */
+    public int indexOf(String path) {
+        byte[] key = path.getBytes(StandardCharsets.UTF_8);
+        for (int layer : layers) {
+            int i = find(layer, key, key.length, false);
+            if (i >= 0)
+                return recordOffset(layer, i);
+            if (hasLeafBelow(layer, key) || hasLeafAbove(layer, key))
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether there is a value at the path, either a leaf or an object containing leaves.
+     * A path holding a tombstone has no value.
+     *
+     * @param path the path
+     * @return true if there is a value at the path
+     */
+    public boolean hasPath(String path) {
+        byte[] key = path.getBytes(StandardCharsets.UTF_8);
+        for (int layer : layers) {
+            int i = find(layer, key, key.length, false);
+            if (i >= 0)
+                return buffer.getInt(recordOffset(layer, i) + 4) != NULL;
+            if (hasLeafBelow(layer, key))
+                return true;
+            if (hasLeafAbove(layer, key))
+                return false;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the long value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public long getLong(String path) {
+        return getLong(require(path));
+    }
+
+    /**
+     * Returns the int value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public int getInt(String path) {
+        return getInt(require(path));
+    }
+
+    /**
+     * Returns the double value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public double getDouble(String path) {
+        return getDouble(require(path));
+    }
+
+    /**
+     * Returns the boolean value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public boolean getBoolean(String path) {
+        return getBoolean(require(path));
+    }
+
+    /**
+     * Returns the string value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public String getString(String path) {
+        return getString(require(path));
+    }
+
+    /**
+     * Returns the list value at a path.
+     *
+     * @param path the full path of a leaf
+     * @return the value
+     * @throws ConfigException.Missing if there is no leaf at the path, or it is null
+     */
+    public List<?> getList(String path) {
+        return getList(require(path));
+    }
+
+    /**
+     * Returns the long value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public long getLong(int index) {
+        int kind = buffer.getInt(index + 4);
+        long payload = buffer.getLong(index + 8);
+        if (kind == LONG)
+            return payload;
+        if (kind == DOUBLE) {
+            double value = Double.longBitsToDouble(payload);
+            if ((long) value == value)
+                return (long) value;
+        }
+        throw wrongType(index, "NUMBER");
+    }
+
+    /**
+     * Returns the int value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value != (int) value)
+            throw wrongType(index, "32-bit integer");
+        return (int) value;
+    }
+
+    /**
+     * Returns the double value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public double getDouble(int index) {
+        int kind = buffer.getInt(index + 4);
+        long payload = buffer.getLong(index + 8);
+        if (kind == LONG)
+            return payload;
+        if (kind == DOUBLE)
+            return Double.longBitsToDouble(payload);
+        throw wrongType(index, "NUMBER");
+    }
+
+    /**
+     * Returns the boolean value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public boolean getBoolean(int index) {
+        if (buffer.getInt(index + 4) == BOOLEAN)
+            return buffer.getLong(index + 8) != 0;
+        throw wrongType(index, "BOOLEAN");
+    }
+
+    /**
+     * Returns the string value of the leaf at an index obtained from {@link #indexOf(String)}.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public String getString(int index) {
+        long payload = buffer.getLong(index + 8);
+        switch (buffer.getInt(index + 4)) {
+            case STRING:
+                return readString((int) payload);
+            case LONG:
+                return Long.toString(payload);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(payload));
+            case BOOLEAN:
+                return Boolean.toString(payload != 0);
+            default:
+                throw wrongType(index, "STRING");
+        }
+    }
+
+    /**
+     * Returns the list value of the leaf at an index obtained from {@link #indexOf(String)}.
+     * The list is decoded from the mapped region on every call.
+     *
+     * @param index the index of the leaf
+     * @return the value
+     */
+    public List<?> getList(int index) {
+        if (buffer.getInt(index + 4) == LIST)
+            return (List<?>) SharedConfigFile.readListValue(buffer, (int) buffer.getLong(index + 8));
+        throw wrongType(index, "LIST");
+    }
+
+    /**
+     * Decodes this configuration into a HOCON configuration, for callers that need a
+     * Typesafe Config tree, such as the diffs delivered to change subscribers.
+     *
+     * @return the configuration as a HOCON configuration
+     */
+    public Config toConfig() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int layer : layers) {
+            int count = buffer.getInt(layer);
+            for (int i = 0; i < count; i++) {
+                int record = recordOffset(layer, i);
+                String path = readString(buffer.getInt(record));
+                if (!values.containsKey(path) && indexOf(path) == record)
+                    values.put(path, valueOf(record));
+            }
+        }
+        return ConfigFactory.parseMap(values, description);
+    }
+
+    private Object valueOf(int record) {
+        switch (buffer.getInt(record + 4)) {
+            case LONG:
+                return getLong(record);
+            case DOUBLE:
+                return getDouble(record);
+            case BOOLEAN:
+                return getBoolean(record);
+            case STRING:
+                return getString(record);
+            case NULL:
+                return null;
+            default:
+                return getList(record);
+        }
+    }
+
+    private static int recordOffset(int layer, int i) {
+        return layer + 4 + i * RECORD_SIZE;
+    }
+
+    /**
+     * Binary searches the leaves of a layer for the first len bytes of the key, followed by a dot if asked.
+     *
+     * @return the index of the leaf, or -(insertion point) - 1 if there is none
+     */
+    private int find(int layer, byte[] key, int len, boolean dot) {
+        int low = 0;
+        int high = buffer.getInt(layer) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(buffer.getInt(recordOffset(layer, mid)), key, len, dot);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    private int compare(int string, byte[] key, int len, boolean dot) {
+        int length = buffer.getInt(string);
+        int keyLength = dot ? len + 1 : len;
+        int n = Math.min(length, keyLength);
+        for (int i = 0; i < n; i++) {
+            int b = i < len ? key[i] & 0xff : '.';
+            int c = (buffer.get(string + 4 + i) & 0xff) - b;
+            if (c != 0)
+                return c;
+        }
+        return length - keyLength;
+    }
+
+    /**
+     * Returns whether a layer has a leaf below the path, which makes the path an object there.
+     */
+    private boolean hasLeafBelow(int layer, byte[] key) {
+        int i = find(layer, key, key.length, true);
+        int first = i >= 0 ? i : -i - 1;
+        if (first >= buffer.getInt(layer))
+            return false;
+        int string = buffer.getInt(recordOffset(layer, first));
+        if (buffer.getInt(string) <= key.length)
+            return false;
+        for (int k = 0; k < key.length; k++) {
+            if (buffer.get(string + 4 + k) != key[k])
+                return false;
+        }
+        return buffer.get(string + 4 + key.length) == '.';
+    }
+
+    /**
+     * Returns whether a layer has a leaf at a shorter path the path lies below, skipping dots in quoted keys.
+     */
+    private boolean hasLeafAbove(int layer, byte[] key) {
+        boolean quoted = false;
+        for (int i = 0; i < key.length; i++) {
+            byte b = key[i];
+            if (b == '"' && (i == 0 || key[i - 1] != '\\'))
+                quoted = !quoted;
+            else if (b == '.' && !quoted && i > 0 && find(layer, key, i, false) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    private String readString(int string) {
+        return SharedConfigFile.readString(buffer, string);
+    }
+
+    private int require(String path) {
+        int index = indexOf(path);
+        if (index < 0)
+            throw new ConfigException.Missing(path);
+        return index;
+    }
+
+    private ConfigException wrongType(int index, String expected) {
+        String path = readString(buffer.getInt(index));
+        int kind = buffer.getInt(index + 4);
+        if (kind == NULL)
+            return new ConfigException.Null(null, path, expected);
+        return new ConfigException.WrongType(null, path + " in " + description
+                + " has type " + kindName(kind) + " rather than " + expected);
+    }
+
+    private static String kindName(int kind) {
+        switch (kind) {
+            case LONG:
+            case DOUBLE:
+                return "NUMBER";
+            case BOOLEAN:
+                return "BOOLEAN";
+            case STRING:
+                return "STRING";
+            case NULL:
+                return "NULL";
+            default:
+                return "LIST";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.IConfig;
+
+/**
+ * The MappedConfigImpl class is an implementation of the IConfig interface backed by a
+ * MappedConfig, whose values stay in a memory-mapped file shared between processes.
+ * Merging stacks the entries of the same file, so a resolved configuration holds no
+ * values on the heap either.
+ */
+public class MappedConfigImpl implements IConfig<MappedConfig> {
+    private volatile boolean merged;
+    private volatile MappedConfig config;
+
+    /**
+     * Constructs a new MappedConfigImpl with the provided mapped configuration.
+     *
+     * @param config The mapped configuration to be managed by this instance.
+     */
+    public MappedConfigImpl(MappedConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public boolean isMerged() {
+        return merged;
+    }
+
+    /**
+     * Merges the current configuration with another mapped configuration of the same file.
+     * Values of the current configuration take precedence, as with HOCON's withFallback.
+     *
+     * @param conf The configuration to merge with the current configuration.
+     * @throws IllegalArgumentException if the configuration is not mapped from the same file.
+     */
+    @Override
+    public void mergeSuper(IConfig conf) {
+        Object object = conf.getConfigObject();
+        if (!(object instanceof MappedConfig))
+            throw new IllegalArgumentException("Cannot merge a mapped configuration with " + object.getClass().getName());
+        this.config = config.withFallback((MappedConfig) object);
+    }
+
+    @Override
+    public void setMerged(boolean b) {
+        merged = b;
+    }
+
+    @Override
+    public MappedConfig getConfigObject() {
+        return config;
+    }
+
+    @Override
+    public MappedConfigImpl copy() {
+        return new MappedConfigImpl(config);
+    }
+}
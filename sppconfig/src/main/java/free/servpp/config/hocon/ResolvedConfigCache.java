@@ -0,0 +1,45 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ResolvedConfigCache class caches configurations resolved by a HoconConfigManager,
+ * keyed by the (configuration ID, modifier) pair of the caller. Reads never lock: a warm
+ * lookup is a single probe on one map keyed by the ConfigKey of the pair, which carries
+ * a null ID or modifier as such, so no value stands in for null.
+ *
+ * A cache instance is never cleared. The owning manager invalidates it by replacing it
+ * with a new instance, so a resolution that raced with the invalidation only ends up
+ * in the discarded instance.
+ */
+class ResolvedConfigCache {
+    private final ConcurrentHashMap<ConfigKey, IConfig> configs = new ConcurrentHashMap<>();
+
+    /**
+     * Retrieves the configuration resolved for the given ID and modifier.
+     *
+     * @param configId The configuration ID of the caller, may be null.
+     * @param modifier The modifier of the caller, may be null.
+     * @return The cached configuration, or null if it has not been resolved yet.
+     */
+    IConfig get(String configId, String modifier) {
+        return configs.get(new ConfigKey(configId, modifier));
+    }
+
+    /**
+     * Stores the configuration resolved for the given ID and modifier, unless another
+     * thread stored one first.
+     *
+     * @param configId The configuration ID of the caller, may be null.
+     * @param modifier The modifier of the caller, may be null.
+     * @param config   The resolved configuration.
+     * @return The configuration held by the cache for the pair afterwards.
+     */
+    IConfig putIfAbsent(String configId, String modifier, IConfig config) {
+        IConfig existing = configs.putIfAbsent(new ConfigKey(configId, modifier), config);
+        return existing != null ? existing : config;
+    }
+}
@@ -0,0 +1,380 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The RootSplitter class splits a HOCON source into its top-level roots, one configuration per
+ * root key, which is the type the configuration belongs to. The source is streamed: the text of
+ * one root is read at a time and parsed on its own, so the tree of the whole source is never
+ * built, and roots that are not wanted are skipped without being parsed. A root key defined
+ * more than once is merged as in a single HOCON document, the later definition taking precedence.
+ *
+ * Only the syntax needed to find where a root ends is read: keys, strings, comments and the
+ * nesting of braces and brackets. A source using includes, substitutions or appends at any
+ * point cannot be split this way, since those may depend on other roots; it is reported as
+ * unsplittable and must be parsed as a whole and split with {@link #split(Config, Predicate)}.
+ */
+final class RootSplitter {
+    // Characters that end an unquoted HOCON key, besides whitespace. A slash may start a comment.
+    private static final String KEY_TERMINATORS = "$\"{}[]:=,+#`^?!@*&\\./";
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private int line = 1;
+    // The text of the root being read, or null if the root is skipped.
+    private StringBuilder capture;
+
+    private RootSplitter(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Splits a HOCON source into the configurations of its root keys.
+     *
+     * @param reader the source, positioned at its start
+     * @param source the location of the source, used in the origins of the configurations
+     * @param roots  selects the root keys to parse; the others are skipped
+     * @return the configuration of every selected root key in source order, or null if the
+     * source cannot be split without parsing it as a whole
+     * @throws IOException if the source cannot be read
+     * @throws com.typesafe.config.ConfigException if a root cannot be parsed
+     */
+    static Map<String, Config> split(Reader reader, String source, Predicate<String> roots) throws IOException {
+        Map<String, Config> ret = new LinkedHashMap<>();
+        boolean complete = new RootSplitter(reader).readRoots((key, text, line) -> {
+            if (!roots.test(key))
+                return false;
+            if (text != null) {
+                ConfigParseOptions options = ConfigParseOptions.defaults().setOriginDescription(source + ": " + key + " at line " + line);
+                ret.merge(key, ConfigFactory.parseString(text, options), (earlier, later) -> later.withFallback(earlier));
+            }
+            return true;
+        });
+        return complete ? ret : null;
+    }
+
+    /**
+     * Splits a configuration parsed as a whole into the configurations of its root keys.
+     *
+     * @param config the configuration
+     * @param roots  selects the root keys to keep
+     * @return the configuration of every selected root key
+     */
+    static Map<String, Config> split(Config config, Predicate<String> roots) {
+        Map<String, Config> ret = new LinkedHashMap<>();
+        ConfigObject root = config.root();
+        for (String key : root.keySet()) {
+            if (roots.test(key))
+                ret.put(key, root.withOnlyKey(key).toConfig());
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the root keys of a HOCON source without parsing it.
+     *
+     * @param reader the source, positioned at its start
+     * @return the root keys in source order, or null if they cannot be determined without parsing
+     * @throws IOException if the source cannot be read
+     */
+    static Set<String> scan(Reader reader) throws IOException {
+        Set<String> keys = new LinkedHashSet<>();
+        boolean complete = new RootSplitter(reader).readRoots((key, text, line) -> {
+            keys.add(key);
+            return false;
+        });
+        return complete ? keys : null;
+    }
+
+    /**
+     * Receives the roots of a source.
+     */
+    private interface RootHandler {
+        /**
+         * Receives a root. The handler is called with a null text when the root key has been
+         * read, and asked whether it wants the text; if so, it is called again with the text.
+         *
+         * @return true if the text of the root is wanted
+         */
+        boolean onRoot(String key, String text, int line);
+    }
+
+    /**
+     * Reads the roots of the source one by one.
+     *
+     * @return false if the source cannot be split without parsing it
+     */
+    private boolean readRoots(RootHandler handler) throws IOException {
+        int c = skipWhitespaceAndComments();
+        boolean braced = c == '{';
+        if (braced) {
+            read();
+            c = skipWhitespaceAndComments();
+        }
+        while (c >= 0) {
+            if (c == '}') {
+                if (!braced)
+                    return false;
+                read();
+                return skipWhitespaceAndComments() < 0;
+            }
+            int start = line;
+            capture = new StringBuilder();
+            String key = readRootKey();
+            if (key == null)
+                return false;
+            boolean wanted = handler.onRoot(key, null, start);
+            if (!wanted)
+                capture = null;
+            if (!readValue())
+                return false;
+            if (wanted)
+                handler.onRoot(key, capture.toString(), start);
+            capture = null;
+            c = skipWhitespaceAndComments();
+            if (c == ',') {
+                read();
+                c = skipWhitespaceAndComments();
+            }
+        }
+        return !braced;
+    }
+
+    /**
+     * Reads the path of a root up to its value, and returns its first element.
+     */
+    private String readRootKey() throws IOException {
+        String key = readKeyElement();
+        if (key == null || key.equals("include"))
+            return null;
+        int c;
+        while ((c = peek(0)) == '.') {
+            read();
+            if (readKeyElement() == null)
+                return null;
+        }
+        while ((c = peek(0)) == ' ' || c == '\t') {
+            read();
+        }
+        if (c == ':' || c == '=') {
+            read();
+            skipWhitespaceAndComments();
+            return key;
+        }
+        return c == '{' ? key : null;
+    }
+
+    /**
+     * Reads one element of a path, quoted or unquoted, or returns null if it is neither.
+     */
+    private String readKeyElement() throws IOException {
+        int c = peek(0);
+        if (c == '"') {
+            if (peek(1) == '"')
+                return null;
+            read();
+            return readQuoted();
+        }
+        if (c < 0 || Character.isWhitespace(c) || KEY_TERMINATORS.indexOf(c) >= 0)
+            return null;
+        StringBuilder sb = new StringBuilder();
+        while ((c = peek(0)) >= 0 && !Character.isWhitespace(c) && KEY_TERMINATORS.indexOf(c) < 0) {
+            sb.append((char) read());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a quoted key after its opening quote, or returns null for an invalid one.
+     */
+    private String readQuoted() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = read()) != '"') {
+            if (c < 0 || c == '\n')
+                return null;
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0)
+                                return null;
+                            code = code * 16 + digit;
+                        }
+                        sb.append((char) code);
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append((char) c);
+                        break;
+                    default:
+                        return null;
+                }
+            } else {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a value up to the newline, comma or closing brace that ends it outside of any
+     * object, list or string.
+     *
+     * @return false if the value uses an include, a substitution or an append, or is malformed
+     */
+    private boolean readValue() throws IOException {
+        int depth = 0;
+        // Whether the last character read is part of unquoted text
+        boolean unquoted = false;
+        while (true) {
+            int c = peek(0);
+            if (c < 0)
+                return depth == 0;
+            if (depth == 0 && (c == '\n' || c == ','))
+                return true;
+            if (c == '"') {
+                if (!skipString())
+                    return false;
+            } else if (c == '#' || (c == '/' && peek(1) == '/')) {
+                skipComment();
+            } else if (c == '$' && peek(1) == '{') {
+                return false;
+            } else if (c == '+' && peek(1) == '=') {
+                return false;
+            } else if (!unquoted && isInclude()) {
+                // An include in a nested object; unquoted text reading "include" elsewhere is rejected as well
+                return false;
+            } else if (c == '{' || c == '[') {
+                depth++;
+                read();
+            } else if (c == '}' || c == ']') {
+                if (depth == 0)
+                    return c == '}';
+                depth--;
+                read();
+            } else {
+                read();
+                unquoted = !Character.isWhitespace(c) && KEY_TERMINATORS.indexOf(c) < 0;
+                continue;
+            }
+            unquoted = false;
+        }
+    }
+
+    /**
+     * Returns whether the unquoted word "include" starts at the current position.
+     */
+    private boolean isInclude() throws IOException {
+        String word = "include";
+        for (int i = 0; i < word.length(); i++) {
+            if (peek(i) != word.charAt(i))
+                return false;
+        }
+        int c = peek(word.length());
+        return c < 0 || Character.isWhitespace(c) || KEY_TERMINATORS.indexOf(c) >= 0;
+    }
+
+    /**
+     * Skips a quoted or triple-quoted string.
+     */
+    private boolean skipString() throws IOException {
+        if (peek(1) == '"' && peek(2) == '"') {
+            read();
+            read();
+            read();
+            int quotes = 0;
+            int c;
+            // The string ends at three quotes; further quotes right after them belong to it
+            while ((c = peek(0)) >= 0 && !(quotes >= 3 && c != '"')) {
+                quotes = read() == '"' ? quotes + 1 : 0;
+            }
+            return quotes >= 3;
+        }
+        read();
+        int c;
+        while ((c = read()) != '"') {
+            if (c < 0 || c == '\n')
+                return false;
+            if (c == '\\')
+                read();
+        }
+        return true;
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        while ((c = peek(0)) >= 0 && c != '\n') {
+            read();
+        }
+    }
+
+    /**
+     * Skips whitespace, a byte order mark and comments, and returns the first character after
+     * them without reading it.
+     */
+    private int skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            int c = peek(0);
+            if (c == '#' || (c == '/' && peek(1) == '/')) {
+                skipComment();
+            } else if (c >= 0 && (c == '\uFEFF' || Character.isWhitespace(c))) {
+                read();
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek(0);
+        if (c >= 0) {
+            pos++;
+            if (c == '\n')
+                line++;
+            if (capture != null)
+                capture.append((char) c);
+        }
+        return c;
+    }
+
+    /**
+     * Returns the character the given number of characters ahead without reading it.
+     */
+    private int peek(int ahead) throws IOException {
+        while (pos + ahead >= limit) {
+            if (pos > 0) {
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+                limit -= pos;
+                pos = 0;
+            }
+            int n = reader.read(buffer, limit, buffer.length - limit);
+            if (n < 0)
+                return -1;
+            limit += n;
+        }
+        return buffer[pos + ahead];
+    }
+}
@@ -0,0 +1,396 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import free.servpp.config.IConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SharedConfigFile class shares the entries of a HoconConfigTypeManager between the
+ * processes of a host. One process writes the entries of all types to a file; the others
+ * memory-map it, and their managers look values up directly in the mapped region through
+ * {@link MappedConfig}, instead of each parsing and holding its own copy of the configuration:
+ * <pre>
+ * SharedConfigFile.write(loader.getManager(), file);     // publishing process
+ * SharedConfigFile.map(file, typeManager);               // every other process
+ * </pre>
+ * A new file is published by writing it next to the old one and moving it in place, so a
+ * process that mapped the old file keeps reading it until it maps the new one; mapping again
+ * replaces the managers of all types, and the old mapping is released once its configurations
+ * are no longer referenced. Types missing from the new file are removed.
+ *
+ * Unlike {@link CompiledConfigFile}, which is read back into HOCON trees, the layout is made for
+ * random access: every entry is a sorted array of fixed-size leaf records, and strings and lists
+ * are referenced by their offset in the file. Null values are kept as tombstone records, so that
+ * they still hide the values of the configurations merged below them. Only the keys of the
+ * entries are decoded onto the heap.
+ *
+ * Layout: magic, version, offset of the type table; then strings, lists and entries; then the
+ * type table with, per type, its name and the offsets of its ID and modifier entries.
+ */
+public final class SharedConfigFile {
+    private static final int MAGIC = 0x5350504D; // "SPPM"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte LIST = 6;
+    private static final byte OBJECT = 7;
+
+    private SharedConfigFile() {
+    }
+
+    /**
+     * Writes the entries of all types of the manager to the given file. The file is written
+     * next to its destination and then moved in place, so readers never see a partial file.
+     *
+     * @param manager the manager whose entries are written
+     * @param file    the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(HoconConfigTypeManager manager, File file) throws IOException {
+        Writer writer = new Writer();
+        writer.out.writeInt(MAGIC);
+        writer.out.writeInt(VERSION);
+        writer.out.writeInt(0);
+        List<int[]> tables = new ArrayList<>();
+        for (String type : manager.getConfigTypes()) {
+            HoconConfigManager typeManager = manager.getHoconConfigManager(type);
+            Map<String, IConfig> configsById = typeManager.getConfigsById();
+            Map<String, IConfig> configsByModifier = typeManager.getConfigsByModifier();
+            int[] table = new int[3 + 2 * (configsById.size() + configsByModifier.size())];
+            table[0] = writer.writeString(type);
+            table[1] = configsById.size();
+            table[2] = configsByModifier.size();
+            int n = 3;
+            for (Map<String, IConfig> entries : Arrays.asList(configsById, configsByModifier)) {
+                for (Map.Entry<String, IConfig> entry : entries.entrySet()) {
+                    table[n++] = writer.writeString(entry.getKey());
+                    table[n++] = writer.writeEntry(entry.getValue());
+                }
+            }
+            tables.add(table);
+        }
+        int tableOffset = writer.out.size();
+        writer.out.writeInt(tables.size());
+        for (int[] table : tables) {
+            for (int value : table) {
+                writer.out.writeInt(value);
+            }
+        }
+        writer.out.flush();
+        byte[] bytes = writer.bytes.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(8, tableOffset);
+
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Memory-maps the given file and installs its entries into the manager. The managers of all
+     * types are replaced together: every type in the file replaces the manager of that type, its
+     * configurations being MappedConfigImpl instances, and every other type is removed.
+     *
+     * @param file    the file to map
+     * @param manager the manager to install the entries into
+     * @return true if the file was mapped; false if it is missing or of another version
+     * @throws IOException if the file cannot be mapped or is corrupt
+     */
+    public static boolean map(File file, HoconConfigTypeManager manager) throws IOException {
+        if (!file.isFile())
+            return false;
+        MappedByteBuffer buffer;
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        String description = "shared config " + file.getPath();
+        try {
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                return false;
+            int pos = buffer.getInt(8);
+            int typeCount = buffer.getInt(pos);
+            pos += 4;
+            Map<String, HoconConfigManager> managers = new LinkedHashMap<>();
+            for (int i = 0; i < typeCount; i++) {
+                String type = readString(buffer, buffer.getInt(pos));
+                int ids = buffer.getInt(pos + 4);
+                int modifiers = buffer.getInt(pos + 8);
+                pos += 12;
+                Map<String, IConfig> configsById = new HashMap<>();
+                pos = readEntries(buffer, pos, ids, description, configsById);
+                Map<String, IConfig> configsByModifier = new HashMap<>();
+                pos = readEntries(buffer, pos, modifiers, description, configsByModifier);
+                HoconConfigManager typeManager = new HoconConfigManager(type);
+                typeManager.addConfigs(configsById, configsByModifier);
+                managers.put(type, typeManager);
+            }
+            for (String type : manager.getConfigTypes()) {
+                managers.putIfAbsent(type, null);
+            }
+            manager.replaceManagers(managers);
+            return true;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt " + description, e);
+        }
+    }
+
+    private static int readEntries(ByteBuffer buffer, int pos, int count, String description, Map<String, IConfig> entries) {
+        for (int i = 0; i < count; i++, pos += 8) {
+            int entry = buffer.getInt(pos + 4);
+            if (entry < HEADER_SIZE || entry >= buffer.capacity())
+                throw new IndexOutOfBoundsException("Entry offset " + entry);
+            String key = readString(buffer, buffer.getInt(pos));
+            entries.put(key, new MappedConfigImpl(new MappedConfig(buffer, new int[]{entry}, description)));
+        }
+        return pos;
+    }
+
+    /**
+     * Decodes the string at an offset of a shared file.
+     */
+    static String readString(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the tagged list at an offset of a shared file into an unmodifiable list.
+     */
+    static Object readListValue(ByteBuffer buffer, int offset) {
+        return new ValueReader(buffer, offset).readValue();
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> strings = new HashMap<>();
+        // Entries shared by several keys are written once.
+        private final Map<Object, Integer> entries = new IdentityHashMap<>();
+
+        private int writeString(String s) throws IOException {
+            Integer offset = strings.get(s);
+            if (offset != null)
+                return offset;
+            offset = out.size();
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+            strings.put(s, offset);
+            return offset;
+        }
+
+        private int writeEntry(IConfig config) throws IOException {
+            Object object = config.getConfigObject();
+            Integer offset = entries.get(object);
+            if (offset != null)
+                return offset;
+            FlatConfig flat = flatten(object);
+            int size = flat.size();
+            byte[][] paths = new byte[size][];
+            int[] pathOffsets = new int[size];
+            int[] kinds = new int[size];
+            long[] payloads = new long[size];
+            for (int i = 0; i < size; i++) {
+                String path = flat.getPath(i);
+                paths[i] = path.getBytes(StandardCharsets.UTF_8);
+                pathOffsets[i] = writeString(path);
+                switch (flat.getKind(i)) {
+                    case FlatConfig.LONG:
+                        kinds[i] = MappedConfig.LONG;
+                        payloads[i] = flat.getLong(i);
+                        break;
+                    case FlatConfig.DOUBLE:
+                        kinds[i] = MappedConfig.DOUBLE;
+                        payloads[i] = Double.doubleToRawLongBits(flat.getDouble(i));
+                        break;
+                    case FlatConfig.BOOLEAN:
+                        kinds[i] = MappedConfig.BOOLEAN;
+                        payloads[i] = flat.getBoolean(i) ? 1 : 0;
+                        break;
+                    case FlatConfig.STRING:
+                        kinds[i] = MappedConfig.STRING;
+                        payloads[i] = writeString(flat.getString(i));
+                        break;
+                    case FlatConfig.LIST:
+                        kinds[i] = MappedConfig.LIST;
+                        payloads[i] = writeList(flat.getList(i));
+                        break;
+                    default:
+                        kinds[i] = MappedConfig.NULL;
+                }
+            }
+            // Leaves are sorted by the bytes of their paths, which is the order lookups search in
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(paths[a], paths[b]));
+            offset = out.size();
+            out.writeInt(size);
+            for (int i : order) {
+                out.writeInt(pathOffsets[i]);
+                out.writeInt(kinds[i]);
+                out.writeLong(payloads[i]);
+            }
+            entries.put(object, offset);
+            return offset;
+        }
+
+        private static FlatConfig flatten(Object object) {
+            if (object instanceof FlatConfig)
+                return (FlatConfig) object;
+            if (object instanceof MappedConfig)
+                return FlatConfig.of(((MappedConfig) object).toConfig());
+            return FlatConfig.of((Config) object);
+        }
+
+        private int writeList(List<?> list) throws IOException {
+            // The strings of a list are written ahead of it, so that the list itself is contiguous
+            internStrings(list);
+            int offset = out.size();
+            writeValue(list);
+            return offset;
+        }
+
+        private void internStrings(Object value) throws IOException {
+            if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof List) {
+                for (Object element : (List<?>) value) {
+                    internStrings(element);
+                }
+            } else if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    writeString((String) entry.getKey());
+                    internStrings(entry.getValue());
+                }
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Number) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                out.writeInt(strings.get(value));
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(element);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> object = (Map<?, ?>) value;
+                out.writeByte(OBJECT);
+                out.writeInt(object.size());
+                for (Map.Entry<?, ?> entry : object.entrySet()) {
+                    out.writeInt(strings.get(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            } else {
+                throw new IOException("Unsupported value " + value.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Decodes a tagged value, advancing over it.
+     */
+    private static final class ValueReader {
+        private final ByteBuffer buffer;
+        private int pos;
+
+        private ValueReader(ByteBuffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        private Object readValue() {
+            byte tag = buffer.get(pos++);
+            switch (tag) {
+                case NULL:
+                    return null;
+                case BOOLEAN:
+                    return buffer.get(pos++) != 0;
+                case INT:
+                    pos += 4;
+                    return buffer.getInt(pos - 4);
+                case LONG:
+                    pos += 8;
+                    return buffer.getLong(pos - 8);
+                case DOUBLE:
+                    pos += 8;
+                    return buffer.getDouble(pos - 8);
+                case STRING:
+                    pos += 4;
+                    return readString(buffer, buffer.getInt(pos - 4));
+                case LIST:
+                    int size = buffer.getInt(pos);
+                    pos += 4;
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return Collections.unmodifiableList(list);
+                case OBJECT:
+                    int count = buffer.getInt(pos);
+                    pos += 4;
+                    Map<String, Object> object = new LinkedHashMap<>();
+                    for (int i = 0; i < count; i++) {
+                        String key = readString(buffer, buffer.getInt(pos));
+                        pos += 4;
+                        object.put(key, readValue());
+                    }
+                    return Collections.unmodifiableMap(object);
+                default:
+                    throw new IllegalArgumentException("Unknown value tag " + tag);
+            }
+        }
+    }
+}
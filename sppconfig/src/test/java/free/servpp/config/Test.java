@@ -0,0 +1,18 @@
+package free.servpp.config;
+
+import free.servpp.config.hocon.DeclarativeConfigurableBuilder;
+import free.servpp.config.hocon.HoconConfigLoader;
+
+import java.io.IOException;
+
+/**
+ * @author lidong@date 2024-08-02@version 1.0
+ */
+public class Test {
+    public static void main(String[] args) throws IOException {
+        HoconConfigLoader loader = new HoconConfigLoader(".conf", "config",
+                new DeclarativeConfigurableBuilder().declare("service", "serviceId", "modifier"));
+        loader.load();
+        System.out.println(loader.getManager().getConfigTypes());
+    }
+}
@@ -0,0 +1,80 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigBinderTest {
+
+    @Test
+    void bindsTheValuesOfAnInterface() {
+        HoconConfigImpl config = new HoconConfigImpl(ConfigFactory.parseString(
+                "service { header = h1, retries = 3, limit = 1099511627776, ratio = 0.5, enabled = true,"
+                        + " timeout = 2s, level = HIGH, hosts = [a, b] }"));
+        ServiceConfig bound = ConfigBinder.bind(ServiceConfig.class, config, "service");
+        assertEquals("h1", bound.header());
+        assertEquals(3, bound.retries());
+        assertEquals(1099511627776L, bound.limit());
+        assertEquals(0.5, bound.ratio(), 0.0);
+        assertTrue(bound.enabled());
+        assertEquals(Duration.ofSeconds(2), bound.timeout());
+        assertEquals(Level.HIGH, bound.level());
+        assertEquals(Arrays.asList("a", "b"), bound.hosts());
+    }
+
+    @Test
+    void bindsFlattenedConfigs() {
+        FlatConfigImpl config = FlatConfigImpl.of(new HoconConfigImpl(ConfigFactory.parseString(
+                "header = h2, retries = 4, limit = 5, ratio = 1.5, enabled = false, timeout = 10ms, level = LOW, hosts = []")));
+        ServiceConfig bound = ConfigBinder.bind(ServiceConfig.class, config, "");
+        assertEquals("h2", bound.header());
+        assertEquals(4, bound.retries());
+        assertEquals(5L, bound.limit());
+        assertFalse(bound.enabled());
+        assertEquals(Duration.ofMillis(10), bound.timeout());
+        assertEquals(Level.LOW, bound.level());
+        assertTrue(bound.hosts().isEmpty());
+    }
+
+    @Test
+    void createsOneFactoryPerInterfaceAndPrefix() {
+        assertSame(ConfigBinder.getFactory(ServiceConfig.class, "service"), ConfigBinder.getFactory(ServiceConfig.class, "service"));
+        assertSame(ConfigBinder.getFactory(ServiceConfig.class, null), ConfigBinder.getFactory(ServiceConfig.class, ""));
+    }
+
+    @Test
+    void rejectsClassesThatAreNotInterfaces() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigBinder.getFactory(String.class, ""));
+    }
+
+    enum Level {
+        LOW, HIGH
+    }
+
+    public interface ServiceConfig {
+        String header();
+
+        int retries();
+
+        long limit();
+
+        double ratio();
+
+        boolean enabled();
+
+        Duration timeout();
+
+        Level level();
+
+        List<String> hosts();
+    }
+}
@@ -0,0 +1,125 @@
+package free.servpp.config.hocon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigKeyFilterTest {
+
+    @Test
+    void matchesEveryKeyOfRandomSets() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Set<String> keys = new HashSet<>();
+            int size = random.nextInt(2000);
+            for (int i = 0; i < size; i++) {
+                keys.add(Long.toString(random.nextLong(), 36));
+            }
+            ConfigKeyFilter filter = new ConfigKeyFilter(keys);
+            for (String key : keys) {
+                assertTrue(filter.mightContain(key), "False negative for " + key);
+            }
+        }
+    }
+
+    @Test
+    void rulesOutMostAbsentKeys() {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("id-" + i);
+        }
+        ConfigKeyFilter filter = new ConfigKeyFilter(keys);
+        int matched = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("absent-" + i))
+                matched++;
+        }
+        assertTrue(matched < 500, matched + " of 10000 absent keys matched");
+    }
+
+    @Test
+    void emptyKeySetMatchesNothing() {
+        ConfigKeyFilter filter = new ConfigKeyFilter(Collections.emptySet());
+        assertFalse(filter.mightContain("id"));
+        assertFalse(filter.mightContain(""));
+        filter.markAbsent("id");
+        assertFalse(filter.mightContain("id"));
+    }
+
+    @Test
+    void nullKeysAreSkipped() {
+        ConfigKeyFilter onlyNull = new ConfigKeyFilter(new HashSet<>(Collections.singleton(null)));
+        assertFalse(onlyNull.mightContain("id"));
+
+        ConfigKeyFilter filter = new ConfigKeyFilter(new HashSet<>(Arrays.asList(null, "a", "b")));
+        assertTrue(filter.mightContain("a"));
+        assertTrue(filter.mightContain("b"));
+    }
+
+    @Test
+    void markAbsentRulesOutKey() {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            keys.add("id-" + i);
+        }
+        ConfigKeyFilter filter = new ConfigKeyFilter(keys);
+        String absent = findMatchingAbsentKey(filter, keys, 0);
+        assertTrue(filter.mightContain(absent));
+        filter.markAbsent(absent);
+        assertFalse(filter.mightContain(absent));
+    }
+
+    @Test
+    void markAbsentSlotCollisionsNeverHidePresentKeys() {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add("id-" + i);
+        }
+        ConfigKeyFilter filter = new ConfigKeyFilter(keys);
+        // Mark absent keys sharing the negative cache slot of every present key
+        for (String key : keys) {
+            String absent = findMatchingAbsentKey(filter, keys, key.hashCode());
+            filter.markAbsent(absent);
+            assertTrue(filter.mightContain(key), "Present key " + key + " hidden by " + absent);
+        }
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    void collidingAbsentKeysReplaceEachOther() {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("id-" + i);
+        }
+        ConfigKeyFilter filter = new ConfigKeyFilter(keys);
+        String first = findMatchingAbsentKey(filter, keys, 7);
+        String second = findMatchingAbsentKey(filter, keys, 7, first);
+        filter.markAbsent(first);
+        filter.markAbsent(second);
+        // Only the key marked last is remembered; the other one is matched again, which is safe
+        assertTrue(filter.mightContain(first));
+        assertFalse(filter.mightContain(second));
+    }
+
+    /**
+     * Returns an absent key that the filter matches and whose negative cache slot is that of the given hash.
+     */
+    private static String findMatchingAbsentKey(ConfigKeyFilter filter, Set<String> keys, int hash, String... excluded) {
+        Set<String> skip = new HashSet<>(Arrays.asList(excluded));
+        for (int i = 0; ; i++) {
+            String candidate = "absent-" + i;
+            if (!keys.contains(candidate) && !skip.contains(candidate) && ((candidate.hashCode() ^ hash) & 63) == 0
+                    && filter.mightContain(candidate))
+                return candidate;
+        }
+    }
+}
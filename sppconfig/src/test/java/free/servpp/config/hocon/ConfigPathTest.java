@@ -0,0 +1,101 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigPathTest {
+
+    @Test
+    void readsValuesLikeTheConfig() {
+        HoconConfigImpl config = hocon("a { s = x, i = 3, l = 1099511627776, d = 2.5, w = 4.0, b = true, n = [1, 2], o { p = q } }\n\"x.y\" = z");
+        assertEquals("x", ConfigPath.compile("a.s").getString(config));
+        assertEquals("3", ConfigPath.compile("a.i").getString(config));
+        assertEquals(3, ConfigPath.compile("a.i").getInt(config));
+        assertEquals(1099511627776L, ConfigPath.compile("a.l").getLong(config));
+        assertEquals(2.5, ConfigPath.compile("a.d").getDouble(config), 0.0);
+        assertEquals(4L, ConfigPath.compile("a.w").getLong(config));
+        assertTrue(ConfigPath.compile("a.b").getBoolean(config));
+        assertEquals(Arrays.asList(1, 2), ConfigPath.compile("a.n").getList(config));
+        assertEquals("q", ConfigPath.compile("a.o").getConfig(config).getString("p"));
+        assertEquals("z", ConfigPath.compile("\"x.y\"").getString(config));
+    }
+
+    @Test
+    void reportsMissesAndNulls() {
+        HoconConfigImpl config = hocon("a { s = x, n = null }");
+        ConfigPath missing = ConfigPath.compile("a.t");
+        ConfigPath missingParent = ConfigPath.compile("b.c");
+        ConfigPath nulled = ConfigPath.compile("a.n");
+        ConfigPath belowNull = ConfigPath.compile("a.n.m");
+        ConfigPath belowString = ConfigPath.compile("a.s.t");
+        // Every read is repeated, so that the cached miss or null is read as well
+        for (int i = 0; i < 2; i++) {
+            assertFalse(missing.hasPath(config));
+            assertFalse(missingParent.hasPath(config));
+            assertFalse(nulled.hasPath(config));
+            assertThrows(ConfigException.Missing.class, () -> missing.getString(config));
+            assertThrows(ConfigException.Missing.class, () -> missingParent.getInt(config));
+            assertThrows(ConfigException.Null.class, () -> nulled.getString(config));
+            assertThrows(ConfigException.Null.class, () -> nulled.getLong(config));
+            assertThrows(ConfigException.WrongType.class, () -> belowNull.getString(config));
+            assertThrows(ConfigException.WrongType.class, () -> belowString.getString(config));
+        }
+        assertTrue(ConfigPath.compile("a.s").hasPath(config));
+        assertThrows(ConfigException.BadPath.class, () -> ConfigPath.compile("a..b"));
+    }
+
+    @Test
+    void rejectsValuesOfAnotherType() {
+        HoconConfigImpl config = hocon("s = x, big = 1099511627776, d = 2.5, o { p = 1 }, l = [1]");
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("s").getInt(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("big").getInt(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("d").getLong(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("s").getBoolean(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("o").getString(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("l").getConfig(config));
+        assertThrows(ConfigException.WrongType.class, () -> ConfigPath.compile("o").getList(config));
+    }
+
+    @Test
+    void keepsTheValuesOfEachConfigApart() {
+        List<ConfigPath> paths = new ArrayList<>();
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            paths.add(ConfigPath.compile("k" + i));
+            first.append("k").append(i).append(" = ").append(i).append('\n');
+            second.append("k").append(i).append(" = ").append(i * 2).append('\n');
+        }
+        HoconConfigImpl one = hocon(first.toString());
+        HoconConfigImpl two = hocon(second.toString());
+        // Reads interleave, so that the tables of both configurations grow while holding values
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < paths.size(); i++) {
+                assertEquals(i, paths.get(i).getInt(one));
+                assertEquals(i * 2, paths.get(i).getInt(two));
+            }
+        }
+
+        // A merge replaces the values read before it
+        HoconConfigImpl merged = hocon("k0 = 100");
+        assertEquals(100, paths.get(0).getInt(merged));
+        assertFalse(paths.get(1).hasPath(merged));
+        merged.mergeSuper(one);
+        assertEquals(100, paths.get(0).getInt(merged));
+        assertEquals(1, paths.get(1).getInt(merged));
+    }
+
+    private static HoconConfigImpl hocon(String config) {
+        return new HoconConfigImpl(ConfigFactory.parseString(config));
+    }
+}
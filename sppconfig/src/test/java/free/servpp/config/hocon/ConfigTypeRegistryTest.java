@@ -0,0 +1,106 @@
+package free.servpp.config.hocon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigTypeRegistryTest {
+
+    @Test
+    void internsTypesToStableHandles() {
+        ConfigTypeRegistry registry = new ConfigTypeRegistry();
+        assertNull(registry.findHandle("a"));
+        ConfigTypeHandle a = registry.handleOf("a");
+        assertSame(a, registry.handleOf("a"));
+        assertSame(a, registry.findHandle("a"));
+        assertEquals("a", a.getType());
+        assertSame(registry, a.getRegistry());
+
+        // Handles beyond the first chunk of slots
+        List<ConfigTypeHandle> handles = new ArrayList<>();
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            ConfigTypeHandle handle = registry.handleOf("t" + i);
+            handles.add(handle);
+            assertTrue(indexes.add(handle.getIndex()), "Index issued twice: " + handle);
+        }
+        for (ConfigTypeHandle handle : handles) {
+            registry.getAndSet(handle, new HoconConfigManager(handle.getType()));
+        }
+        for (ConfigTypeHandle handle : handles) {
+            assertEquals(handle.getType(), registry.get(handle).getConfigType());
+            assertSame(registry.get(handle), registry.get(handle.getType()));
+        }
+        assertEquals(200, registry.getManagers().size());
+    }
+
+    @Test
+    void installsManagersBySlot() {
+        ConfigTypeRegistry registry = new ConfigTypeRegistry();
+        ConfigTypeHandle handle = registry.handleOf("a");
+        assertNull(registry.get(handle));
+        assertTrue(registry.getTypes().isEmpty(), "A type without a manager was listed");
+
+        HoconConfigManager first = new HoconConfigManager("a");
+        HoconConfigManager second = new HoconConfigManager("a");
+        assertTrue(registry.compareAndSet(handle, null, first));
+        assertFalse(registry.compareAndSet(handle, null, second));
+        assertSame(first, registry.getAndSet(handle, second));
+        assertSame(second, registry.get("a"));
+        assertEquals(Collections.singleton("a"), registry.getTypes());
+        assertSame(second, registry.getAndSet(handle, null));
+        assertTrue(registry.getTypes().isEmpty(), "A removed type was listed");
+        assertNull(registry.get("unknown"));
+    }
+
+    @Test
+    void issuesOneHandleAndManagerPerTypeUnderContention() throws Exception {
+        HoconConfigTypeManager typeManager = new HoconConfigTypeManager();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<List<HoconConfigManager>>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    List<HoconConfigManager> managers = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        managers.add(typeManager.getHoconConfigManager(typeManager.getTypeHandle("t" + i)));
+                    }
+                    return managers;
+                });
+            }
+            List<Future<List<HoconConfigManager>>> results = executor.invokeAll(tasks);
+            List<HoconConfigManager> first = results.get(0).get();
+            for (Future<List<HoconConfigManager>> result : results) {
+                List<HoconConfigManager> managers = result.get();
+                for (int i = 0; i < 100; i++) {
+                    assertSame(first.get(i), managers.get(i), "t" + i);
+                    assertSame(first.get(i), typeManager.getHoconConfigManager("t" + i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(100, typeManager.getConfigTypes().size());
+    }
+
+    @Test
+    void rejectsHandlesOfAnotherTypeManager() {
+        ConfigTypeHandle foreign = new HoconConfigTypeManager().getTypeHandle("a");
+        assertThrows(IllegalArgumentException.class, () -> new HoconConfigTypeManager().getHoconConfigManager(foreign));
+    }
+}
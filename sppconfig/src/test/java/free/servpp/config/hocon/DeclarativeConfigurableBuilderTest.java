@@ -0,0 +1,91 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import free.servpp.config.IConfigurableForLoad;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeclarativeConfigurableBuilderTest {
+
+    @Test
+    void readsScalarValues() {
+        IConfigurableForLoad configurable = build(builder(), "service { serviceId = s1, modifier = m1 }");
+        assertEquals("s1", configurable.getConfigId());
+        assertEquals("m1", configurable.getModifier());
+        assertNull(configurable.getConfigIdList());
+        assertNull(configurable.getModifierList());
+        assertEquals("service", configurable.getConfigType());
+
+        // Numbers and booleans read as Config.getString reads them
+        IConfigurableForLoad numbers = build(builder(), "service { serviceId = 1.50, modifier = true }");
+        assertEquals("1.50", numbers.getConfigId());
+        assertEquals("true", numbers.getModifier());
+    }
+
+    @Test
+    void readsListValues() {
+        IConfigurableForLoad configurable = build(builder(), "service { serviceId = [s1, s2], modifier = [1, m2] }");
+        assertNull(configurable.getConfigId());
+        assertNull(configurable.getModifier());
+        assertEquals(Arrays.asList("s1", "s2"), configurable.getConfigIdList());
+        assertEquals(Arrays.asList("1", "m2"), configurable.getModifierList());
+
+        Config byId = configurable.createConfigById("s2");
+        assertEquals("s2", byId.getString("service.serviceId"));
+        assertEquals(1, byId.entrySet().size());
+        assertEquals("m2", configurable.createConfigByModifier("m2").getString("service.modifier"));
+    }
+
+    @Test
+    void readsAbsentValuesAsNull() {
+        for (String config : Arrays.asList("service { header = h }", "service { serviceId = null, modifier = null }")) {
+            IConfigurableForLoad configurable = build(builder(), config);
+            assertNull(configurable.getConfigId(), config);
+            assertNull(configurable.getModifier(), config);
+            assertNull(configurable.getConfigIdList(), config);
+            assertNull(configurable.getModifierList(), config);
+        }
+        // A type declared without a modifier path never reads one
+        IConfigurableForLoad noModifier = build(new DeclarativeConfigurableBuilder().declare("service", "serviceId", null),
+                "service { serviceId = s1, modifier = m1 }");
+        assertEquals("s1", noModifier.getConfigId());
+        assertNull(noModifier.getModifier());
+    }
+
+    @Test
+    void rejectsObjectValues() {
+        assertThrows(ConfigException.WrongType.class, () -> build(builder(), "service { serviceId { a = 1 } }"));
+    }
+
+    @Test
+    void buildsOnlyDeclaredTypes() {
+        DeclarativeConfigurableBuilder builder = builder();
+        assertNull(builder.build("route", ConfigFactory.parseString("route { routeId = r1 }")));
+        assertThrows(RuntimeException.class, () -> builder.declare("service", "id", null));
+
+        String fingerprint = builder.getFingerprint();
+        builder.declareDefault("id", null);
+        assertNotEquals(fingerprint, builder.getFingerprint());
+        IConfigurableForLoad route = (IConfigurableForLoad) builder.build("route", ConfigFactory.parseString("route { id = r1 }"));
+        assertEquals("r1", route.getConfigId());
+        assertEquals("route", route.getConfigType());
+        assertTrue(builder.getFingerprint().startsWith(DeclarativeConfigurableBuilder.class.getName()));
+    }
+
+    private static DeclarativeConfigurableBuilder builder() {
+        return new DeclarativeConfigurableBuilder().declare("service", "serviceId", "modifier");
+    }
+
+    private static IConfigurableForLoad build(DeclarativeConfigurableBuilder builder, String config) {
+        return (IConfigurableForLoad) builder.build("service", ConfigFactory.parseString(config));
+    }
+}
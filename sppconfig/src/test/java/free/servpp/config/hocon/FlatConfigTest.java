@@ -0,0 +1,134 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigurable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlatConfigTest {
+
+    @Test
+    void readsEveryKindOfLeaf() {
+        FlatConfig config = flat("a { b = 1, c = 1.5 }\ns = x\nt = true\nl = [1, 2]\nn = null\nbig = 1099511627776");
+        assertEquals(1, config.getInt("a.b"));
+        assertEquals(1.5, config.getDouble("a.c"));
+        assertEquals("x", config.getString("s"));
+        assertEquals("1", config.getString("a.b"));
+        assertTrue(config.getBoolean("t"));
+        assertEquals(Arrays.asList(1, 2), config.getList("l"));
+        assertTrue(config.hasPath("a"));
+        assertFalse(config.hasPath("n"));
+        assertTrue(config.indexOf("n") >= 0);
+        assertThrows(ConfigException.Null.class, () -> config.getLong("n"));
+        assertThrows(ConfigException.Null.class, () -> config.getString("n"));
+        assertThrows(ConfigException.WrongType.class, () -> config.getInt("big"));
+        assertThrows(ConfigException.WrongType.class, () -> config.getLong("s"));
+        assertThrows(ConfigException.Missing.class, () -> config.getLong("a"));
+    }
+
+    @Test
+    void mergesLikeHocon() {
+        assertMergesLikeHocon("a { b = 1 }", "a { b = 2, c = 3 }\nx = 4");
+        assertMergesLikeHocon("a = 5", "a { b = 2 }");
+        assertMergesLikeHocon("a { b = 1 }", "a = 5");
+        assertMergesLikeHocon("a { b { c = 1 } }", "a { b { d = 2 }, e = 3 }");
+        assertMergesLikeHocon("\"x.y\" { z = 1 }", "\"x.y\" { w = 2 }\nx { y = 3 }");
+        assertMergesLikeHocon("l = [1]", "l = [2, 3]\nm = [4]");
+    }
+
+    @Test
+    void tombstonesHideFallbacks() {
+        assertMergesLikeHocon("a { b = null }", "a { b = 2, c = 3 }");
+        assertMergesLikeHocon("a = null", "a { b = 2 }");
+        assertMergesLikeHocon("a { b = 1 }", "a { b = null, c = null }");
+
+        FlatConfig merged = flat("a { b = null }").withFallback(flat("c = 1")).withFallback(flat("a { b = 2, d = 4 }"));
+        assertFalse(merged.hasPath("a.b"));
+        assertThrows(ConfigException.Null.class, () -> merged.getLong("a.b"));
+        assertEquals(1, merged.getLong("c"));
+        assertEquals(4, merged.getLong("a.d"));
+
+        FlatConfig hidden = flat("a = null").withFallback(flat("c = 1")).withFallback(flat("a { b = 2 }"));
+        assertFalse(hidden.hasPath("a"));
+        assertFalse(hidden.hasPath("a.b"));
+    }
+
+    @Test
+    void mergesFlatAndHoconEntriesInOneManager() {
+        HoconConfigManager manager = new HoconConfigManager("service");
+        manager.addConfigByModifier(IConfigManager.DEFAULT, hocon("a = 0\nb = 2\nc = 3"));
+        manager.addConfigByModifier("m", FlatConfigImpl.of(hocon("b = 20\nd = 4")));
+        manager.addConfigById("hocon", hocon("a = 1\nc = null"));
+        manager.addConfigById("flat", FlatConfigImpl.of(hocon("a = 10")));
+
+        // A HOCON entry over a flat modifier over a HOCON default
+        Config config = HoconConfigImpl.toConfig(manager.getConfig(new Configurable("hocon", "m")));
+        assertEquals(1, config.getInt("a"));
+        assertEquals(20, config.getInt("b"));
+        assertTrue(config.getIsNull("c"));
+        assertEquals(4, config.getInt("d"));
+
+        // A flat entry over a flat modifier over a HOCON default
+        IConfig flat = manager.getConfig(new Configurable("flat", "m"));
+        assertTrue(flat.getConfigObject() instanceof FlatConfig);
+        FlatConfig values = (FlatConfig) flat.getConfigObject();
+        assertEquals(10, values.getInt("a"));
+        assertEquals(20, values.getInt("b"));
+        assertEquals(3, values.getInt("c"));
+        assertEquals(4, values.getInt("d"));
+
+        // A flat modifier over a HOCON default
+        FlatConfig modifier = (FlatConfig) manager.getConfig(new Configurable(null, "m")).getConfigObject();
+        assertEquals(0, modifier.getInt("a"));
+        assertEquals(20, modifier.getInt("b"));
+
+        // The stored entries are not changed by the merges
+        assertFalse(((FlatConfig) manager.getConfigByModifier("m").getConfigObject()).hasPath("a"));
+    }
+
+    private static void assertMergesLikeHocon(String config, String fallback) {
+        String expected = ConfigFactory.parseString(config).withFallback(ConfigFactory.parseString(fallback)).root()
+                .render(ConfigRenderOptions.concise());
+        String actual = flat(config).withFallback(flat(fallback)).toConfig().root().render(ConfigRenderOptions.concise());
+        assertEquals(expected, actual, config + " with fallback " + fallback);
+    }
+
+    private static FlatConfig flat(String config) {
+        return FlatConfig.of(ConfigFactory.parseString(config));
+    }
+
+    private static HoconConfigImpl hocon(String config) {
+        return new HoconConfigImpl(ConfigFactory.parseString(config));
+    }
+
+    private static final class Configurable implements IConfigurable {
+        private final String configId;
+        private final String modifier;
+
+        private Configurable(String configId, String modifier) {
+            this.configId = configId;
+            this.modifier = modifier;
+        }
+
+        @Override
+        public String getConfigId() {
+            return configId;
+        }
+
+        @Override
+        public String getModifier() {
+            return modifier;
+        }
+    }
+}
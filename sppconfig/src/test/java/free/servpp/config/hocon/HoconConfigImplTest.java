@@ -0,0 +1,93 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfigManager;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HoconConfigImplTest {
+
+    @Test
+    void deltasFallBackToTheirSharedBase() {
+        Config base = ConfigFactory.parseString("service { serviceId = [s1, s2], header = h }");
+        HoconConfigImpl first = new HoconConfigImpl(ConfigFactory.parseString("service.serviceId = s1"), base);
+        HoconConfigImpl second = new HoconConfigImpl(ConfigFactory.parseString("service.serviceId = s2"), base);
+        assertEquals("s1", first.getConfigObject().getString("service.serviceId"));
+        assertEquals("s2", second.getConfigObject().getString("service.serviceId"));
+        assertEquals("h", first.getConfigObject().getString("service.header"));
+
+        // A copy of an uncombined entry stays uncombined
+        HoconConfigImpl unread = new HoconConfigImpl(ConfigFactory.parseString("service.serviceId = s3"), base);
+        HoconConfigImpl copy = unread.copy();
+        assertSame(base, copy.getBase());
+        assertSame(unread.getDelta(), copy.getDelta());
+        assertEquals("s3", copy.getConfigObject().getString("service.serviceId"));
+    }
+
+    @Test
+    void resolvesChainsOfDeltasLikeCombinedConfigs() {
+        Config idBase = ConfigFactory.parseString("service { serviceId = [s1, s2], modifier = m, timeout = 1 }");
+        Config modifierBase = ConfigFactory.parseString("service { modifier = [m, n], timeout = 5, header = hm }");
+        HoconConfigManager manager = new HoconConfigManager("service");
+        manager.addConfigByModifier(IConfigManager.DEFAULT, new HoconConfigImpl(
+                ConfigFactory.parseString("service { timeout = 9, retries = 3, header = hd }")));
+        manager.addConfigByModifier("m", new HoconConfigImpl(ConfigFactory.parseString("service.modifier = m"), modifierBase));
+        manager.addConfigByModifier("n", new HoconConfigImpl(ConfigFactory.parseString("service.modifier = n"), modifierBase));
+        manager.addConfigById("s1", new HoconConfigImpl(ConfigFactory.parseString("service.serviceId = s1"), idBase));
+        manager.addConfigById("s2", new HoconConfigImpl(ConfigFactory.parseString("service.serviceId = s2"), idBase));
+
+        Config byId = resolve(manager, "s1", "m");
+        assertEquals("s1", byId.getString("service.serviceId"));
+        assertEquals(1, byId.getInt("service.timeout"));
+        assertEquals("hm", byId.getString("service.header"));
+        assertEquals(3, byId.getInt("service.retries"));
+        // A list in the base is overridden by the delta of every entry, never by a sibling entry
+        assertEquals("s2", resolve(manager, "s2", "n").getString("service.serviceId"));
+        assertEquals("m", resolve(manager, "s2", "n").getString("service.modifier"));
+
+        Config byModifier = resolve(manager, null, "n");
+        assertEquals("n", byModifier.getString("service.modifier"));
+        assertEquals(5, byModifier.getInt("service.timeout"));
+        assertEquals(3, byModifier.getInt("service.retries"));
+        assertEquals(9, resolve(manager, null, null).getInt("service.timeout"));
+
+        // The stored entries are not changed by the merges
+        assertFalse(HoconConfigImpl.toConfig(manager.getConfigById("s1")).hasPath("service.retries"));
+        assertFalse(HoconConfigImpl.toConfig(manager.getConfigByModifier("m")).hasPath("service.retries"));
+    }
+
+    @Test
+    void entriesExpandedFromOneSourceShareItsBase() throws Exception {
+        Path root = Files.createTempDirectory("sppconfig");
+        HoconConfigLoaderTest.write(root, "service.conf", "service { serviceId = [s1, s2, s3], modifier = [m1, m2], header = h }");
+
+        HoconConfigLoaderTest.withResources(root, () -> {
+            HoconConfigLoader loader = new HoconConfigLoader(".conf", "loader-test",
+                    new DeclarativeConfigurableBuilder().declare("service", "serviceId", "modifier"));
+            loader.load();
+            HoconConfigManager manager = loader.getManager().getHoconConfigManager("service");
+            Config base = ((HoconConfigImpl) manager.getConfigById("s1")).getBase();
+            assertNotNull(base);
+            assertSame(base, ((HoconConfigImpl) manager.getConfigById("s3")).getBase());
+            assertSame(base, ((HoconConfigImpl) manager.getConfigByModifier("m2")).getBase());
+            for (String id : new String[]{"s1", "s2", "s3"}) {
+                assertEquals(id, HoconConfigImpl.toConfig(manager.getConfigById(id)).getString("service.serviceId"));
+            }
+            assertEquals("m2", HoconConfigImpl.toConfig(manager.getConfigByModifier("m2")).getString("service.modifier"));
+            assertEquals("h", HoconConfigLoaderTest.header(loader, "s2"));
+        });
+    }
+
+    private static Config resolve(HoconConfigManager manager, String configId, String modifier) {
+        return HoconConfigImpl.toConfig(manager.getConfig(new ConfigKey(configId, modifier)));
+    }
+}
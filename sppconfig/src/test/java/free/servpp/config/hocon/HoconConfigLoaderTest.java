@@ -0,0 +1,193 @@
+package free.servpp.config.hocon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoconConfigLoaderTest {
+    private static final String RESOURCES_DIR = "loader-test";
+
+    @Test
+    void compiledFileIsReadUntilSourcesOrBuilderChange() throws Exception {
+        Path root = Files.createTempDirectory("sppconfig");
+        Path source = write(root, "service.conf", "service { serviceId = s1, header = first }");
+        File compiled = root.resolve("compiled.bin").toFile();
+
+        withResources(root, () -> {
+            HoconConfigLoader parsed = loader(compiled, "modifier");
+            parsed.load();
+            assertEquals(1, parsed.getLoadReport().getParseNanosByFile().size());
+            assertTrue(compiled.isFile(), "The compiled file was not written");
+            assertEquals("first", header(parsed, "s1"));
+
+            HoconConfigLoader fromCompiled = loader(compiled, "modifier");
+            fromCompiled.load();
+            assertTrue(fromCompiled.getLoadReport().getParseNanosByFile().isEmpty(), "The sources were parsed");
+            assertEquals("first", header(fromCompiled, "s1"));
+
+            // A changed source changes the source hash
+            Files.write(source, "service { serviceId = s1, header = second }".getBytes(StandardCharsets.UTF_8));
+            HoconConfigLoader changedSource = loader(compiled, "modifier");
+            changedSource.load();
+            assertEquals(1, changedSource.getLoadReport().getParseNanosByFile().size());
+            assertEquals("second", header(changedSource, "s1"));
+
+            HoconConfigLoader rewritten = loader(compiled, "modifier");
+            rewritten.load();
+            assertTrue(rewritten.getLoadReport().getParseNanosByFile().isEmpty(), "The compiled file was not rewritten");
+            assertEquals("second", header(rewritten, "s1"));
+
+            // Changed declarations change the fingerprint of the builder
+            HoconConfigLoader changedBuilder = loader(compiled, "variant");
+            changedBuilder.load();
+            assertEquals(1, changedBuilder.getLoadReport().getParseNanosByFile().size());
+            assertEquals("second", header(changedBuilder, "s1"));
+        });
+    }
+
+    @Test
+    void parsesFilesConcurrentlyInWalkOrder() throws Exception {
+        Path root = Files.createTempDirectory("sppconfig");
+        // Every ID is defined by several files, so the result depends on the order they are merged in
+        for (int i = 0; i < 24; i++) {
+            write(root, "dir" + i % 3 + "/service" + i + ".conf",
+                    "service { serviceId = s" + i % 5 + ", header = h" + i + " }");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            withResources(root, () -> {
+                HoconConfigLoader serial = loader(null, "modifier");
+                serial.load();
+                HoconConfigLoader parallel = loader(null, "modifier").setExecutor(executor);
+                parallel.load();
+                assertEquals(24, parallel.getLoadReport().getParseNanosByFile().size());
+                assertEquals(serial.getLoadReport().getParseNanosByFile().keySet(),
+                        parallel.getLoadReport().getParseNanosByFile().keySet());
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(header(serial, "s" + i), header(parallel, "s" + i), "s" + i);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void reloadParsesOnlyTheChangedFiles() throws Exception {
+        Path root = Files.createTempDirectory("sppconfig");
+        write(root, "a.conf", "service { serviceId = s1, header = a1 }");
+        Path changed = write(root, "b.conf", "service { serviceId = s2, header = b1 }");
+        write(root, "c.conf", "route { routeId = r1, target = s1 }");
+
+        withResources(root, () -> {
+            HoconConfigLoader loader = new HoconConfigLoader(".conf", RESOURCES_DIR,
+                    new DeclarativeConfigurableBuilder().declare("service", "serviceId", null).declare("route", "routeId", null));
+            loader.load();
+            assertEquals(3, loader.getLoadReport().getParseNanosByFile().size());
+            HoconConfigManager routes = loader.getManager().getHoconConfigManager("route");
+
+            Files.write(changed, "service { serviceId = s3, header = b3 }".getBytes(StandardCharsets.UTF_8));
+            loader.reload(Collections.singletonList(changed.toFile()));
+            assertEquals(Collections.singleton(changed.toFile().getPath()),
+                    loader.getLoadReport().getParseNanosByFile().keySet());
+            assertEquals("a1", header(loader, "s1"));
+            assertNull(loader.getManager().getHoconConfigManager("service").getConfigById("s2"));
+            assertEquals("b3", header(loader, "s3"));
+            // Types without a changed file keep their manager
+            assertSame(routes, loader.getManager().getHoconConfigManager("route"));
+
+            Files.delete(changed);
+            loader.reload(Collections.singletonList(changed.toFile()));
+            assertTrue(loader.getLoadReport().getParseNanosByFile().isEmpty(), "A deleted file was parsed");
+            assertEquals("a1", header(loader, "s1"));
+            assertNull(loader.getManager().getHoconConfigManager("service").getConfigById("s3"));
+        });
+    }
+
+    @Test
+    void lazyTypesLoadOnFirstUseAndStayPinnedInEarlierGenerations() throws Exception {
+        Path root = Files.createTempDirectory("sppconfig");
+        Path changed = write(root, "a.conf", "service { serviceId = s1, header = a1 }\nroute { routeId = r1, target = s1 }");
+        write(root, "b.conf", "service { serviceId = s2, header = b1 }");
+
+        withResources(root, () -> {
+            HoconConfigLoader loader = new HoconConfigLoader(".conf", RESOURCES_DIR,
+                    new DeclarativeConfigurableBuilder().declare("service", "serviceId", null).declare("route", "routeId", null))
+                    .setLazy(true);
+            loader.load();
+            HoconConfigTypeManager typeManager = loader.getManager();
+            assertEquals(new HashSet<>(Arrays.asList("service", "route")), typeManager.getConfigTypes());
+            ConfigGeneration pending = typeManager.acquireGeneration();
+            assertTrue(pending.getConfigTypes().isEmpty(), "A type was loaded before its first use");
+
+            assertEquals("a1", header(loader, "s1"));
+            assertEquals("b1", header(loader, "s2"));
+            assertEquals(Collections.singleton("service"), typeManager.acquireGeneration().getConfigTypes());
+
+            Files.write(changed, "service { serviceId = s1, header = a2 }\nroute { routeId = r1, target = s2 }"
+                    .getBytes(StandardCharsets.UTF_8));
+            loader.reload(Collections.singletonList(changed.toFile()));
+            assertEquals("a2", header(loader, "s1"));
+            assertEquals("b1", header(loader, "s2"));
+            // A generation acquired while the type was pending keeps the entries it was first loaded with
+            assertEquals("a1", HoconConfigImpl.toConfig(pending.getManager("service").getConfigById("s1"))
+                    .getString("service.header"));
+            assertEquals("a2", HoconConfigImpl.toConfig(typeManager.acquireGeneration().getManager("service")
+                    .getConfigById("s1")).getString("service.header"));
+            assertEquals("s2", HoconConfigImpl.toConfig(pending.getManager("route").getConfigById("r1"))
+                    .getString("route.target"));
+        });
+    }
+
+    private static HoconConfigLoader loader(File compiled, String modifierPath) {
+        return new HoconConfigLoader(".conf", RESOURCES_DIR,
+                new DeclarativeConfigurableBuilder().declare("service", "serviceId", modifierPath))
+                .setCompiledConfigFile(compiled);
+    }
+
+    static String header(HoconConfigLoader loader, String configId) {
+        return HoconConfigImpl.toConfig(loader.getManager().getHoconConfigManager("service").getConfigById(configId))
+                .getString("service.header");
+    }
+
+    static Path write(Path root, String name, String text) throws IOException {
+        Path file = root.resolve(RESOURCES_DIR).resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs a task with the given directory as the class path of the context class loader,
+     * which the loader finds its resources directory on.
+     */
+    static void withResources(Path root, Task task) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (URLClassLoader resources = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+            thread.setContextClassLoader(resources);
+            task.run();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+}
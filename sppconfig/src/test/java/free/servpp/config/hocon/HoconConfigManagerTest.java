@@ -0,0 +1,139 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.ConfigKey;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HoconConfigManagerTest {
+
+    @Test
+    void cachesResolvedConfigsByIdAndModifier() {
+        HoconConfigManager manager = manager();
+        IConfig idAndModifier = manager.getConfig(new ConfigKey("i", "m"));
+        IConfig idOnly = manager.getConfig(new ConfigKey("i", null));
+        IConfig modifierOnly = manager.getConfig(new ConfigKey(null, "m"));
+        IConfig neither = manager.getConfig(new ConfigKey(null, null));
+        assertEquals("i<m<d", idAndModifier.getConfigObject());
+        assertEquals("i<d", idOnly.getConfigObject());
+        assertEquals("m<d", modifierOnly.getConfigObject());
+        assertEquals("d", neither.getConfigObject());
+
+        assertSame(idAndModifier, manager.getConfig(new ConfigKey("i", "m")));
+        assertSame(idOnly, manager.getConfig(new ConfigKey("i", null)));
+        assertSame(modifierOnly, manager.getConfig(new ConfigKey(null, "m")));
+        // IDs and modifiers without an entry share the result of a null one
+        assertSame(modifierOnly, manager.getConfig(new ConfigKey("unknown", "m")));
+        assertSame(idOnly, manager.getConfig(new ConfigKey("i", "unknown")));
+        assertSame(neither, manager.getConfig(new ConfigKey("unknown", "unknown")));
+    }
+
+    @Test
+    void keepsNullApartFromEveryKey() {
+        ResolvedConfigCache cache = new ResolvedConfigCache();
+        Chain nulls = new Chain("nulls");
+        Chain zero = new Chain("zero");
+        assertSame(nulls, cache.putIfAbsent(null, null, nulls));
+        assertSame(zero, cache.putIfAbsent("\u0000", "\u0000", zero));
+        assertSame(nulls, cache.get(null, null));
+        assertSame(zero, cache.get("\u0000", "\u0000"));
+        assertNull(cache.get(null, "\u0000"));
+        assertNull(cache.get("\u0000", null));
+        assertSame(nulls, cache.putIfAbsent(null, null, new Chain("later")));
+    }
+
+    @Test
+    void invalidatesResolvedConfigs() {
+        HoconConfigManager manager = manager();
+        IConfig before = manager.getConfig(new ConfigKey("i", "m"));
+
+        manager.invalidateResolvedConfigs();
+        IConfig after = manager.getConfig(new ConfigKey("i", "m"));
+        assertNotSame(before, after);
+        assertEquals("i<m<d", after.getConfigObject());
+
+        manager.addConfigByModifier("m", new Chain("m2"));
+        assertEquals("i<m2<d", manager.getConfig(new ConfigKey("i", "m")).getConfigObject());
+        assertEquals("m2<d", manager.getConfig(new ConfigKey(null, "m")).getConfigObject());
+        manager.addConfigById("j", new Chain("j"));
+        assertEquals("j<m2<d", manager.getConfig(new ConfigKey("j", "m")).getConfigObject());
+    }
+
+    @Test
+    void mergesCopiesAndKeepsSnapshotsApart() {
+        HoconConfigManager manager = manager();
+        IConfig stored = manager.getConfigById("i");
+        Map<String, IConfig> before = manager.getConfigsById();
+        IConfig resolved = manager.getConfig(new ConfigKey("i", "m"));
+        assertNotSame(stored, resolved);
+        // The stored entries are never merged into
+        assertEquals("i", stored.getConfigObject());
+        assertEquals("m", manager.getConfigByModifier("m").getConfigObject());
+        assertEquals("d", manager.getConfigByModifier(IConfigManager.DEFAULT).getConfigObject());
+        assertFalse(stored.isMerged());
+
+        // A change installs a new snapshot and leaves the entries and results read before as they were
+        manager.addConfigById("i", new Chain("i2"));
+        manager.addConfigById("j", new Chain("j"));
+        assertEquals(Collections.singleton("i"), before.keySet());
+        assertSame(stored, before.get("i"));
+        assertEquals("i<m<d", resolved.getConfigObject());
+        assertEquals("i2<m<d", manager.getConfig(new ConfigKey("i", "m")).getConfigObject());
+        assertThrows(UnsupportedOperationException.class, () -> manager.getConfigsById().put("k", new Chain("k")));
+    }
+
+    private static HoconConfigManager manager() {
+        HoconConfigManager manager = new HoconConfigManager("service");
+        manager.addConfigByModifier(IConfigManager.DEFAULT, new Chain("d"));
+        manager.addConfigByModifier("m", new Chain("m"));
+        manager.addConfigById("i", new Chain("i"));
+        return manager;
+    }
+
+    /**
+     * A configuration whose value records the chain of configurations merged into it.
+     */
+    static final class Chain implements IConfig<String> {
+        private volatile boolean merged;
+        private volatile String value;
+
+        Chain(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isMerged() {
+            return merged;
+        }
+
+        @Override
+        public void mergeSuper(IConfig config) {
+            value = value + "<" + config.getConfigObject();
+        }
+
+        @Override
+        public void setMerged(boolean b) {
+            merged = b;
+        }
+
+        @Override
+        public String getConfigObject() {
+            return value;
+        }
+
+        @Override
+        public Chain copy() {
+            return new Chain(value);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package free.servpp.config.hocon;
+
+import free.servpp.config.ConfigBatch;
+import free.servpp.config.IConfig;
+import free.servpp.config.IConfigManager;
+import free.servpp.config.IConfigurable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoconConfigTypeManagerTest {
+    private static final Request DEFAULT = new Request(null, null, null);
+
+    @Test
+    void batchLookupsKeepThePositionsOfTheirRequests() {
+        HoconConfigTypeManager typeManager = new HoconConfigTypeManager();
+        for (String type : Arrays.asList("a", "b", "c")) {
+            HoconConfigManager manager = new HoconConfigManager(type);
+            manager.addConfigByModifier(IConfigManager.DEFAULT, new Value(type + ":default"));
+            for (int i = 0; i < 10; i++) {
+                manager.addConfigById("id" + i, new Value(type + ":id" + i));
+            }
+            typeManager.replaceManager(type, manager);
+        }
+        Random random = new Random(42);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String type = "abc".charAt(random.nextInt(3)) + "";
+            requests.add(new Request(type, "id" + random.nextInt(12), null));
+        }
+        ConfigBatch batch = new ConfigBatch(4);
+        // Reusing the batch must not leak groups or values of an earlier lookup
+        for (int round = 0; round < 3; round++) {
+            typeManager.getConfigs(requests.subList(0, requests.size() - round * 100), r -> r.type, batch);
+            assertEquals(requests.size() - round * 100, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Request request = requests.get(i);
+                boolean known = !request.configId.equals("id10") && !request.configId.equals("id11");
+                String expected = request.type + ":" + (known ? request.configId : "default");
+                assertEquals(expected, batch.get(i).getConfigObject(), "Position " + i);
+                assertSame(typeManager.getHoconConfigManager(request.type).getConfig(request), batch.get(i));
+            }
+        }
+    }
+
+    @Test
+    void batchLookupsOfUnknownTypesRegisterNothing() {
+        HoconConfigTypeManager typeManager = new HoconConfigTypeManager();
+        HoconConfigManager manager = new HoconConfigManager("a");
+        manager.addConfigByModifier(IConfigManager.DEFAULT, new Value("a:default"));
+        typeManager.replaceManager("a", manager);
+
+        List<Request> requests = Arrays.asList(
+                new Request("unknown", "id", null), new Request("a", "id", null), new Request("other", null, "m"));
+        ConfigBatch batch = typeManager.getConfigs(requests, r -> r.type, new ConfigBatch());
+        assertEquals(3, batch.size());
+        assertNull(batch.get(0));
+        assertEquals("a:default", batch.get(1).getConfigObject());
+        assertNull(batch.get(2));
+        assertEquals(Collections.singleton("a"), new HashSet<>(typeManager.getConfigTypes()));
+
+        assertEquals(0, typeManager.getConfigs(Collections.<Request>emptyList(), r -> r.type, batch).size());
+    }
+
+    @Test
+    void generationsKeepTheEntriesTheyWereAcquiredWith() {
+        HoconConfigTypeManager typeManager = new HoconConfigTypeManager();
+        typeManager.replaceManager("a", manager("a", "a:1"));
+        ConfigGeneration first = typeManager.acquireGeneration();
+        assertSame(first, typeManager.acquireGeneration());
+
+        typeManager.replaceManager("a", manager("a", "a:2"));
+        typeManager.replaceManager("b", manager("b", "b:2"));
+        ConfigGeneration second = typeManager.acquireGeneration();
+        assertTrue(second.getGeneration() > first.getGeneration());
+        assertEquals("a:1", first.getConfig("a", DEFAULT).getConfigObject());
+        assertNull(first.getManager("b"));
+        assertEquals(Collections.singleton("a"), first.getConfigTypes());
+        assertEquals("a:2", second.getConfig("a", DEFAULT).getConfigObject());
+        assertEquals("b:2", second.getConfig("b", DEFAULT).getConfigObject());
+
+        // Entries added to an installed manager start a new generation as well
+        typeManager.getHoconConfigManager("a").addConfigById("id", new Value("a:id"));
+        ConfigGeneration third = typeManager.acquireGeneration();
+        assertTrue(third.getGeneration() > second.getGeneration());
+        assertNull(second.getManager("a").getConfigById("id"));
+        assertEquals("a:id", third.getConfig("a", new Request("a", "id", null)).getConfigObject());
+    }
+
+    @Test
+    void generationsNeverMixManagersReplacedTogether() throws InterruptedException {
+        HoconConfigTypeManager typeManager = new HoconConfigTypeManager();
+        typeManager.replaceManagers(managers(0));
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 2000; i++) {
+                typeManager.replaceManagers(managers(i));
+            }
+            done.set(true);
+        });
+        writer.start();
+        try {
+            long last = -1;
+            do {
+                ConfigGeneration generation = typeManager.acquireGeneration();
+                assertTrue(generation.getGeneration() >= last);
+                last = generation.getGeneration();
+                String a = (String) generation.getConfig("a", DEFAULT).getConfigObject();
+                String b = (String) generation.getConfig("b", DEFAULT).getConfigObject();
+                assertEquals(a.substring(2), b.substring(2), "Generation " + last);
+            } while (!done.get());
+        } finally {
+            writer.join();
+        }
+        assertEquals("a:2000", typeManager.acquireGeneration().getConfig("a", DEFAULT).getConfigObject());
+    }
+
+    private static Map<String, HoconConfigManager> managers(int version) {
+        Map<String, HoconConfigManager> managers = new HashMap<>();
+        managers.put("a", manager("a", "a:" + version));
+        managers.put("b", manager("b", "b:" + version));
+        return managers;
+    }
+
+    private static HoconConfigManager manager(String type, String value) {
+        HoconConfigManager manager = new HoconConfigManager(type);
+        manager.addConfigByModifier(IConfigManager.DEFAULT, new Value(value));
+        return manager;
+    }
+
+    /**
+     * A configuration holding a single value, stored merged so that lookups return it as is.
+     */
+    private static final class Value implements IConfig<String> {
+        private final String value;
+
+        private Value(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isMerged() {
+            return true;
+        }
+
+        @Override
+        public void mergeSuper(IConfig config) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setMerged(boolean b) {
+        }
+
+        @Override
+        public String getConfigObject() {
+            return value;
+        }
+    }
+
+    private static final class Request implements IConfigurable {
+        private final String type;
+        private final String configId;
+        private final String modifier;
+
+        private Request(String type, String configId, String modifier) {
+            this.type = type;
+            this.configId = configId;
+            this.modifier = modifier;
+        }
+
+        @Override
+        public String getConfigId() {
+            return configId;
+        }
+
+        @Override
+        public String getModifier() {
+            return modifier;
+        }
+    }
+}
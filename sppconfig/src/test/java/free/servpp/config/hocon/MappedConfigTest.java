@@ -0,0 +1,235 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Builds entries in the layout written by SharedConfigFile and reads them through MappedConfig.
+ */
+class MappedConfigTest {
+
+    @Test
+    void readsEveryKindOfLeaf() {
+        Layout layout = new Layout();
+        int entry = layout.entry(
+                leaf("a.b", MappedConfig.LONG, 42),
+                leaf("a.c", MappedConfig.DOUBLE, Double.doubleToRawLongBits(1.5)),
+                leaf("flag", MappedConfig.BOOLEAN, 1),
+                leaf("name", MappedConfig.STRING, layout.string("x")),
+                leaf("tags", MappedConfig.LIST, layout.list("p", "q")),
+                leaf("big", MappedConfig.LONG, 1L << 40));
+        MappedConfig config = layout.config(entry);
+
+        assertEquals(42, config.getInt("a.b"));
+        assertEquals(42L, config.getLong("a.b"));
+        assertEquals(42.0, config.getDouble("a.b"));
+        assertEquals("42", config.getString("a.b"));
+        assertEquals(1.5, config.getDouble("a.c"));
+        assertTrue(config.getBoolean("flag"));
+        assertEquals("x", config.getString("name"));
+        assertEquals(Arrays.asList("p", "q"), config.getList("tags"));
+        assertEquals(1L << 40, config.getLong("big"));
+
+        assertThrows(ConfigException.WrongType.class, () -> config.getLong("a.c"));
+        assertThrows(ConfigException.WrongType.class, () -> config.getInt("big"));
+        assertThrows(ConfigException.WrongType.class, () -> config.getBoolean("name"));
+        assertThrows(ConfigException.WrongType.class, () -> config.getList("name"));
+        assertThrows(ConfigException.Missing.class, () -> config.getLong("a"));
+        assertThrows(ConfigException.Missing.class, () -> config.getLong("missing"));
+    }
+
+    @Test
+    void findsObjectsAndLeaves() {
+        Layout layout = new Layout();
+        MappedConfig config = layout.config(layout.entry(
+                leaf("a.b.c", MappedConfig.LONG, 1),
+                leaf("a.bc", MappedConfig.LONG, 2),
+                leaf("\"x.y\".z", MappedConfig.LONG, 3)));
+
+        assertTrue(config.hasPath("a"));
+        assertTrue(config.hasPath("a.b"));
+        assertTrue(config.hasPath("a.b.c"));
+        assertTrue(config.hasPath("a.bc"));
+        assertFalse(config.hasPath("a.b.c.d"));
+        assertFalse(config.hasPath("a.bc.d"));
+        assertFalse(config.hasPath("a.c"));
+        assertFalse(config.hasPath("b"));
+        assertTrue(config.hasPath("\"x.y\""));
+        assertFalse(config.hasPath("x"));
+        assertEquals(3, config.getLong("\"x.y\".z"));
+        assertTrue(config.indexOf("a.b") < 0);
+    }
+
+    @Test
+    void binarySearchesLargeEntries() {
+        Layout layout = new Layout();
+        List<Leaf> leaves = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            leaves.add(leaf("k" + i, MappedConfig.LONG, i));
+        }
+        // Non-ASCII keys sort after "z" as unsigned bytes, but before it as signed ones
+        leaves.add(leaf("\u00fc", MappedConfig.LONG, -1));
+        leaves.add(leaf("z", MappedConfig.LONG, -2));
+        Collections.shuffle(leaves, new Random(42));
+        MappedConfig config = layout.config(layout.entry(leaves.toArray(new Leaf[0])));
+
+        for (int i = 0; i < 1000; i++) {
+            int index = config.indexOf("k" + i);
+            assertTrue(index >= 0, "Missing k" + i);
+            assertEquals(i, config.getLong(index));
+        }
+        assertEquals(-1, config.getLong("\u00fc"));
+        assertEquals(-2, config.getLong("z"));
+        for (String absent : Arrays.asList("", "k", "k1000", "k01", "j", "l", "k1x", "\u00fd", "zz")) {
+            assertTrue(config.indexOf(absent) < 0, "Found " + absent);
+            assertFalse(config.hasPath(absent), "Has " + absent);
+        }
+    }
+
+    @Test
+    void upperLayersHideLowerOnes() {
+        Layout layout = new Layout();
+        int objectLayer = layout.entry(leaf("a.b", MappedConfig.LONG, 1));
+        int mixedLayer = layout.entry(
+                leaf("a.b", MappedConfig.LONG, 2),
+                leaf("a.c", MappedConfig.LONG, 3),
+                leaf("x", MappedConfig.LONG, 4));
+        int leafLayer = layout.entry(leaf("a", MappedConfig.LONG, 5));
+
+        MappedConfig merged = layout.config(objectLayer).withFallback(layout.config(mixedLayer));
+        assertEquals(1, merged.getLong("a.b"));
+        assertEquals(3, merged.getLong("a.c"));
+        assertEquals(4, merged.getLong("x"));
+
+        MappedConfig leafOverObject = layout.config(leafLayer).withFallback(layout.config(mixedLayer));
+        assertEquals(5, leafOverObject.getLong("a"));
+        assertFalse(leafOverObject.hasPath("a.b"));
+        assertTrue(leafOverObject.indexOf("a.c") < 0);
+
+        MappedConfig objectOverLeaf = layout.config(objectLayer).withFallback(layout.config(leafLayer));
+        assertTrue(objectOverLeaf.hasPath("a"));
+        assertTrue(objectOverLeaf.indexOf("a") < 0);
+        assertEquals(1, objectOverLeaf.getLong("a.b"));
+    }
+
+    @Test
+    void tombstonesHideLowerLayers() {
+        Layout layout = new Layout();
+        int leafTombstone = layout.entry(leaf("a.b", MappedConfig.NULL, 0));
+        int objectTombstone = layout.entry(leaf("a", MappedConfig.NULL, 0));
+        int values = layout.entry(
+                leaf("a.b", MappedConfig.LONG, 2),
+                leaf("a.c", MappedConfig.LONG, 3));
+
+        MappedConfig config = layout.config(leafTombstone).withFallback(layout.config(values));
+        assertFalse(config.hasPath("a.b"));
+        assertTrue(config.indexOf("a.b") >= 0);
+        assertThrows(ConfigException.Null.class, () -> config.getLong("a.b"));
+        assertThrows(ConfigException.Null.class, () -> config.getString("a.b"));
+        assertThrows(ConfigException.Null.class, () -> config.getList("a.b"));
+        assertEquals(3, config.getLong("a.c"));
+        assertTrue(config.hasPath("a"));
+
+        MappedConfig hidden = layout.config(objectTombstone).withFallback(layout.config(values));
+        assertFalse(hidden.hasPath("a"));
+        assertFalse(hidden.hasPath("a.b"));
+        assertThrows(ConfigException.Missing.class, () -> hidden.getLong("a.c"));
+    }
+
+    @Test
+    void rejectsFallbacksOfAnotherFile() {
+        Layout first = new Layout();
+        Layout second = new Layout();
+        MappedConfig config = first.config(first.entry(leaf("a", MappedConfig.LONG, 1)));
+        MappedConfig other = second.config(second.entry(leaf("a", MappedConfig.LONG, 2)));
+        assertThrows(IllegalArgumentException.class, () -> config.withFallback(other));
+    }
+
+    private static Leaf leaf(String path, int kind, long payload) {
+        return new Leaf(path, kind, payload);
+    }
+
+    private static final class Leaf {
+        private final byte[] path;
+        private final int kind;
+        private final long payload;
+
+        private Leaf(String path, int kind, long payload) {
+            this.path = path.getBytes(StandardCharsets.UTF_8);
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Writes strings, lists and entries the way SharedConfigFile does.
+     */
+    private static final class Layout {
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        private Layout() {
+            // Leaves room for the header, so that no offset is zero
+            buffer.position(12);
+        }
+
+        private int string(String s) {
+            return string(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private int string(byte[] bytes) {
+            int offset = buffer.position();
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+            return offset;
+        }
+
+        private int list(String... elements) {
+            int[] strings = new int[elements.length];
+            for (int i = 0; i < elements.length; i++) {
+                strings[i] = string(elements[i]);
+            }
+            int offset = buffer.position();
+            buffer.put((byte) 6); // LIST
+            buffer.putInt(elements.length);
+            for (int string : strings) {
+                buffer.put((byte) 5); // STRING
+                buffer.putInt(string);
+            }
+            return offset;
+        }
+
+        private int entry(Leaf... leaves) {
+            Leaf[] sorted = leaves.clone();
+            Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(a.path, b.path));
+            int[] paths = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                paths[i] = string(sorted[i].path);
+            }
+            int offset = buffer.position();
+            buffer.putInt(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                buffer.putInt(paths[i]);
+                buffer.putInt(sorted[i].kind);
+                buffer.putLong(sorted[i].payload);
+            }
+            return offset;
+        }
+
+        private MappedConfig config(int entry) {
+            return new MappedConfig(buffer, new int[]{entry}, "test layout");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.Config;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RootSplitterTest {
+
+    @Test
+    void scansRootKeys() throws IOException {
+        assertEquals(keys("a", "b", "c", "d"), scan("a = 1\nb { c = 2 }\nc : [1, {x = 2}]\nd=\"text\"\n"));
+        assertEquals(keys("a", "b"), scan("a = 1, b = 2"));
+        assertEquals(keys(), scan(""));
+    }
+
+    @Test
+    void readsQuotedAndDottedKeys() throws IOException {
+        assertEquals(keys("x.y", "a", "q\"r", "u"), scan("\"x.y\" = 1\na.b.c = 2\n\"q\\\"r\".s { t = 3 }\n\"\\u0075\" = 4\n"));
+        assertEquals(keys("a"), scan("a.\"b.c\".d = 1"));
+        assertNull(scan("\"\" = 1"));
+        assertNull(scan("\"a\n\" = 1"));
+    }
+
+    @Test
+    void skipsTripleQuotedStrings() throws IOException {
+        assertEquals(keys("a", "b"), scan("a = \"\"\"text with } and \" and ${x} and\ninclude \"x\"\"\"\"\nb = 2"));
+        // Quotes right after the closing three belong to the string
+        assertEquals(keys("a", "b"), scan("a = \"\"\"x\"\"\"\"\"\nb = 1"));
+        assertNull(scan("a = \"\"\"unterminated\nb = 1"));
+    }
+
+    @Test
+    void skipsComments() throws IOException {
+        assertEquals(keys("a", "b", "c"), scan("# c = 0\n// d = 0\na = 1 # } ${x}\nb { // include \"x\"\n c = 2 }\nc = 3 // +="));
+        assertEquals(keys("a"), scan("a = \"# not a comment\""));
+        assertEquals(keys("a"), scan("a = http://example.com"));
+    }
+
+    @Test
+    void scansRepeatedRootsOnce() throws IOException {
+        assertEquals(keys("a", "b"), scan("a = 1\nb = 2\na.c = 3\na { d = 4 }"));
+    }
+
+    @Test
+    void scansBracedDocuments() throws IOException {
+        assertEquals(keys("a", "b"), scan("{ a = 1, b { c = 2 } }"));
+        assertEquals(keys("a"), scan("\n{\n  a = 1\n}\n# trailing\n"));
+        assertNull(scan("{ a = 1 } b = 2"));
+        assertNull(scan("{ a = 1"));
+        assertNull(scan("a = 1 }"));
+    }
+
+    @Test
+    void rejectsIncludesAtAnyDepth() throws IOException {
+        assertNull(scan("include \"x.conf\"\na = 1"));
+        assertNull(scan("a = 1\ninclude required(file(\"x.conf\"))"));
+        assertNull(scan("a { include \"x.conf\" }"));
+        assertNull(scan("a { b { include file(\"x.conf\") } }"));
+        assertNull(scan("a = [ { include classpath(\"x.conf\") } ]"));
+        assertNull(scan("{ a { include \"x.conf\" } }"));
+        assertEquals(keys("a", "b"), scan("a = \"include\"\nb { includes = 1, my-include = 2 }"));
+    }
+
+    @Test
+    void rejectsSubstitutionsAndAppendsAtAnyDepth() throws IOException {
+        assertNull(scan("a = ${b}"));
+        assertNull(scan("a { b { c = ${?x} } }"));
+        assertNull(scan("a = [1, { b = ${x} }]"));
+        assertNull(scan("a += 1"));
+        assertNull(scan("a { b += 1 }"));
+        assertEquals(keys("a", "b"), scan("a = \"${x}\"\nb = \"+=\""));
+    }
+
+    @Test
+    void skipsRootsThatAreNotWanted() throws IOException {
+        Map<String, Config> roots = RootSplitter.split(new StringReader("a = 1\nb { c = 2 }"), "test", key -> false);
+        assertTrue(roots.isEmpty());
+        assertNull(RootSplitter.split(new StringReader("a { include \"x.conf\" }"), "test", key -> false));
+    }
+
+    @Test
+    void splitsAndMergesRoots() throws IOException {
+        Map<String, Config> roots = RootSplitter.split(new StringReader(
+                "a { x = 1, y = 1 }\nb = 2\nc = 3\na.y = 2\n"), "test", key -> !key.equals("c"));
+        assertEquals(keys("a", "b"), roots.keySet());
+        assertEquals(1, roots.get("a").getInt("a.x"));
+        assertEquals(2, roots.get("a").getInt("a.y"));
+        assertEquals(2, roots.get("b").getInt("b"));
+        assertFalse(roots.get("a").hasPath("b"));
+    }
+
+    private static Set<String> scan(String source) throws IOException {
+        return RootSplitter.scan(new StringReader(source));
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new LinkedHashSet<>(Arrays.asList(keys));
+    }
+}
@@ -0,0 +1,89 @@
+package free.servpp.config.hocon;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedConfigFileTest {
+
+    @Test
+    void mapsTheEntriesWritten() throws IOException {
+        HoconConfigManager service = new HoconConfigManager("service");
+        service.addConfigById("s1", new HoconConfigImpl(ConfigFactory.parseString(
+                "a { b = 1, c = null, d = 2.5 }\nname = x\nflag = true\ntags = [p, q]\n\"x.y\" { z = 3 }")));
+        service.addConfigByModifier("m1", new HoconConfigImpl(ConfigFactory.parseString("name = y")));
+        HoconConfigTypeManager source = new HoconConfigTypeManager();
+        source.replaceManager("service", service);
+        File file = tempFile();
+        SharedConfigFile.write(source, file);
+
+        HoconConfigTypeManager target = new HoconConfigTypeManager();
+        assertTrue(SharedConfigFile.map(file, target));
+        HoconConfigManager mapped = target.getHoconConfigManager("service");
+        MappedConfig config = (MappedConfig) mapped.getConfigById("s1").getConfigObject();
+        assertEquals(1, config.getInt("a.b"));
+        assertEquals(2.5, config.getDouble("a.d"));
+        assertEquals("x", config.getString("name"));
+        assertTrue(config.getBoolean("flag"));
+        assertEquals(Arrays.asList("p", "q"), config.getList("tags"));
+        assertEquals(3, config.getLong("\"x.y\".z"));
+        assertFalse(config.hasPath("a.c"));
+        assertThrows(ConfigException.Null.class, () -> config.getLong("a.c"));
+        assertTrue(HoconConfigImpl.toConfig(mapped.getConfigById("s1")).getIsNull("a.c"));
+        MappedConfig modifier = (MappedConfig) mapped.getConfigByModifier("m1").getConfigObject();
+        assertEquals("y", modifier.getString("name"));
+    }
+
+    @Test
+    void removesTypesMissingFromTheFile() throws IOException {
+        HoconConfigTypeManager source = new HoconConfigTypeManager();
+        source.replaceManager("service", new HoconConfigManager("service"));
+        File file = tempFile();
+        SharedConfigFile.write(source, file);
+
+        HoconConfigTypeManager target = new HoconConfigTypeManager();
+        target.replaceManager("stale", new HoconConfigManager("stale"));
+        assertTrue(SharedConfigFile.map(file, target));
+        assertEquals(Collections.singleton("service"), target.getConfigTypes());
+    }
+
+    @Test
+    void ignoresFilesOfAnotherFormat() throws IOException {
+        File file = tempFile();
+        assertFalse(SharedConfigFile.map(new File(file.getParentFile(), "missing"), new HoconConfigTypeManager()));
+        Files.write(file.toPath(), new byte[16]);
+        assertFalse(SharedConfigFile.map(file, new HoconConfigTypeManager()));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws IOException {
+        HoconConfigTypeManager source = new HoconConfigTypeManager();
+        source.replaceManager("service", new HoconConfigManager("service"));
+        File file = tempFile();
+        SharedConfigFile.write(source, file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // Points the type table past the end of the file
+        bytes[8] = 0x7f;
+        Files.write(file.toPath(), bytes);
+        assertThrows(IOException.class, () -> SharedConfigFile.map(file, new HoconConfigTypeManager()));
+    }
+
+    private static File tempFile() throws IOException {
+        File dir = Files.createTempDirectory("shared-config").toFile();
+        dir.deleteOnExit();
+        File file = new File(dir, "configs.bin");
+        file.deleteOnExit();
+        return file;
+    }
+}